@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# Runs the k6 read mix against the servlet (MVC + JPA) stack and the reactive (WebFlux + R2DBC) stack and
+# prints throughput and latency percentiles for both. Needs k6 and the docker-compose database:
+#   docker-compose up -d db
+#   ./load-tests/compare-stacks.sh
+# The servlet run goes first because the k6 setup seeds the catalog through the bulk endpoint.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+./mvnw -q -Preactive -DskipTests package
+mkdir -p load-tests/results
+
+run_mode() {
+    local mode=$1 profiles=$2
+    java -jar target/inventory-0.0.1-SNAPSHOT.jar --spring.profiles.active="$profiles" \
+        --logging.level.root=WARN --inventory.rate-limit.enabled=false > "load-tests/results/$mode.log" 2>&1 &
+    local pid=$!
+    until curl -sf -u user:password "http://localhost:8080/api/v1/products?size=1" > /dev/null; do sleep 1; done
+    k6 run -q -e MODE="$mode" load-tests/products.js
+    kill "$pid"
+    wait "$pid" || true
+}
+
+run_mode servlet dev
+run_mode reactive dev,reactive
@@ -0,0 +1,24 @@
+#!/usr/bin/env bash
+# Runs the k6 read mix against the API once on platform threads and once on virtual threads and
+# prints throughput and latency percentiles for both. Needs Java 21, k6 and the docker-compose database:
+#   docker-compose up -d db
+#   ./load-tests/compare-threading.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+./mvnw -q -Pjava21 -DskipTests package
+mkdir -p load-tests/results
+
+run_mode() {
+    local mode=$1 profiles=$2
+    java -jar target/inventory-0.0.1-SNAPSHOT.jar --spring.profiles.active="$profiles" \
+        --logging.level.root=WARN --inventory.rate-limit.enabled=false > "load-tests/results/$mode.log" 2>&1 &
+    local pid=$!
+    until curl -sf -u user:password "http://localhost:8080/api/v1/products?size=1" > /dev/null; do sleep 1; done
+    k6 run -q -e MODE="$mode" load-tests/products.js
+    kill "$pid"
+    wait "$pid" || true
+}
+
+run_mode platform-threads dev
+run_mode virtual-threads dev,virtual-threads
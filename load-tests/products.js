@@ -0,0 +1,70 @@
+import http from 'k6/http';
+import encoding from 'k6/encoding';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const MODE = __ENV.MODE || 'default';
+const CATALOG_SIZE = parseInt(__ENV.CATALOG_SIZE || '10000');
+const USER_AUTH = { headers: { Authorization: `Basic ${encoding.b64encode('user:password')}` } };
+const ADMIN_AUTH = { Authorization: `Basic ${encoding.b64encode('admin:admin')}` };
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'constant-arrival-rate',
+            rate: parseInt(__ENV.RATE || '1000'),
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '1m',
+            preAllocatedVUs: 200,
+            maxVUs: parseInt(__ENV.MAX_VUS || '2000'),
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const existing = http.get(`${BASE_URL}/api/v1/products?size=1`, USER_AUTH).json();
+    if (existing.length > 0) {
+        return;
+    }
+    const brands = ['Apple', 'Samsung', 'Sony', 'Lenovo', 'Dell'];
+    for (let offset = 0; offset < CATALOG_SIZE; offset += 1000) {
+        const products = [];
+        for (let i = offset; i < Math.min(offset + 1000, CATALOG_SIZE); i++) {
+            products.push({ name: `Product ${i}`, brand: brands[i % brands.length], price: 10 + (i % 500), quantity: i % 50 });
+        }
+        http.post(`${BASE_URL}/api/v1/products/bulk`, JSON.stringify(products),
+            { headers: Object.assign({ 'Content-Type': 'application/json' }, ADMIN_AUTH) });
+    }
+}
+
+export default function () {
+    const roll = Math.random();
+    let response;
+    if (roll < 0.7) {
+        const id = 1 + Math.floor(Math.random() * CATALOG_SIZE);
+        response = http.get(`${BASE_URL}/api/v1/products/${id}`, Object.assign({ tags: { name: 'getProductById' } }, USER_AUTH));
+    } else if (roll < 0.9) {
+        response = http.get(`${BASE_URL}/api/v1/products/search?query=product ${Math.floor(Math.random() * 100)}`,
+            Object.assign({ tags: { name: 'searchProducts' } }, USER_AUTH));
+    } else {
+        response = http.get(`${BASE_URL}/api/v1/products?size=100`, Object.assign({ tags: { name: 'getProducts' } }, USER_AUTH));
+    }
+    check(response, { 'status is 2xx/404': (r) => (r.status >= 200 && r.status < 300) || r.status === 404 });
+}
+
+export function handleSummary(data) {
+    const duration = data.metrics.http_req_duration.values;
+    const summary = {
+        mode: MODE,
+        throughput: data.metrics.http_reqs.values.rate,
+        p50: duration['p(50)'],
+        p95: duration['p(95)'],
+        p99: duration['p(99)'],
+        failed: data.metrics.http_req_failed.values.rate,
+    };
+    return {
+        stdout: `${MODE}: ${summary.throughput.toFixed(1)} req/s, p50 ${summary.p50.toFixed(1)} ms, p99 ${summary.p99.toFixed(1)} ms, failed ${(summary.failed * 100).toFixed(2)}%\n`,
+        [`load-tests/results/${MODE}.json`]: JSON.stringify(summary, null, 2),
+    };
+}
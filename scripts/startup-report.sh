@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+# Starts the API once per build mode and reports startup time and resident memory.
+# Usage: startup-report.sh <target dir> <final name>, run by `./mvnw -Pcds verify`.
+# Needs the database the active profile points at (docker compose up -d db), pass JAVA_OPTS to override it.
+set -euo pipefail
+
+TARGET=${1:-target}
+NAME=${2:-inventory-0.0.1-SNAPSHOT}
+CDS_DIR="$TARGET/cds"
+REPORT="$TARGET/startup-report.txt"
+STARTUP_TIMEOUT=${STARTUP_TIMEOUT:-90}
+JAVA_OPTS=${JAVA_OPTS:-}
+
+# the exploded layout CDS needs: the thin application jar plus one jar per dependency. The dependencies are
+# listed in the jar's manifest Class-Path, so `java -jar target/cds/inventory.jar` always gets the classpath
+# the archive was trained with, whichever shell or directory it runs from.
+cp "$TARGET/$NAME.jar.original" "$CDS_DIR/inventory.jar"
+MAIN=com.example.inventory.InventoryApplication
+MANIFEST=$(mktemp)
+{
+    echo "Main-Class: $MAIN"
+    # one continuation line per jar keeps every manifest line short
+    printf 'Class-Path:'
+    for jar in $(cd "$CDS_DIR" && ls lib/*.jar | LC_ALL=C sort); do
+        printf '\n  %s' "$jar"
+    done
+    echo
+} > "$MANIFEST"
+jar --update --file "$CDS_DIR/inventory.jar" --manifest "$MANIFEST"
+rm -f "$MANIFEST"
+
+# training run: refresh the context once and dump every class loaded up to that point
+rm -f "$CDS_DIR/inventory.jsa"
+java $JAVA_OPTS -XX:ArchiveClassesAtExit="$CDS_DIR/inventory.jsa" -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh -jar "$CDS_DIR/inventory.jar" > "$CDS_DIR/training.log" 2>&1
+
+# prints "<seconds> <rss kB>" for a command, using the time Spring Boot logs once the context is up
+measure() {
+    local log
+    log=$(mktemp)
+    "$@" > "$log" 2>&1 &
+    local pid=$!
+    local started=""
+    for _ in $(seq 1 $((STARTUP_TIMEOUT * 10))); do
+        started=$(sed -n 's/.*Started InventoryApplication in [0-9.]* seconds (process running for \([0-9.]*\)).*/\1/p' "$log")
+        if [ -n "$started" ] || ! kill -0 "$pid" 2> /dev/null; then
+            break
+        fi
+        sleep 0.1
+    done
+    local rss
+    rss=$(ps -o rss= -p "$pid" | tr -d ' ' || true)
+    kill "$pid" 2> /dev/null || true
+    wait "$pid" 2> /dev/null || true
+    if [ -z "$started" ]; then
+        echo "failed to start, see $log" >&2
+        echo "- -"
+        return
+    fi
+    rm -f "$log"
+    echo "$started ${rss:--}"
+}
+
+{
+    printf '%-10s %12s %12s\n' mode startup_s rss_kb
+    printf '%-10s %12s %12s\n' jvm $(measure java $JAVA_OPTS -jar "$TARGET/$NAME.jar")
+    printf '%-10s %12s %12s\n' aot $(measure java $JAVA_OPTS -Dspring.aot.enabled=true -jar "$CDS_DIR/inventory.jar")
+    printf '%-10s %12s %12s\n' aot+cds $(measure java $JAVA_OPTS -XX:SharedArchiveFile="$CDS_DIR/inventory.jsa" \
+        -Dspring.aot.enabled=true -jar "$CDS_DIR/inventory.jar")
+    if [ -x "$TARGET/inventory" ]; then
+        printf '%-10s %12s %12s\n' native $(measure "$TARGET/inventory" $JAVA_OPTS)
+    fi
+} | tee "$REPORT"
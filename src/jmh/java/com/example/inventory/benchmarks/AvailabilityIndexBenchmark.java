@@ -0,0 +1,74 @@
+package com.example.inventory.benchmarks;
+
+import com.example.inventory.services.OffHeapStockTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Random availability lookups in the OffHeapStockTable behind AvailabilityIndex and in a HashMap<Long, Integer>
+// of the same products. The memory per SKU of each is printed once per trial: exact for the off-heap table,
+// and the retained heap after a full GC for the map.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(jvmArgsAppend = {"-Xmx4g", "-XX:MaxDirectMemorySize=1g"})
+public class AvailabilityIndexBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int skus;
+
+    @Param({"off-heap", "hash-map"})
+    public String index;
+
+    private OffHeapStockTable table;
+
+    private Map<Long, Integer> map;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long heapBefore = usedHeap();
+        if (index.equals("off-heap")) {
+            table = new OffHeapStockTable(skus);
+            for (long id = 1; id <= skus; id++) {
+                table.put(id, (int) (id % 1000));
+            }
+            System.out.printf("%noff-heap table for %d SKUs: %.1f bytes per SKU%n", skus,
+                    (double) table.offHeapBytes() / skus);
+        } else {
+            map = new HashMap<>(skus * 2);
+            for (long id = 1; id <= skus; id++) {
+                map.put(id, (int) (id % 1000));
+            }
+            System.out.printf("%nhash map for %d SKUs: %.1f bytes per SKU%n", skus,
+                    (double) (usedHeap() - heapBefore) / skus);
+        }
+    }
+
+    @Benchmark
+    public boolean isAvailable() {
+        long id = ThreadLocalRandom.current().nextLong(1, skus + 1L);
+        if (table != null) {
+            return table.get(id) >= 3;
+        }
+        Integer quantity = map.get(id);
+        return quantity != null && quantity >= 3;
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
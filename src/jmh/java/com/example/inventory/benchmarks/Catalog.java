@@ -0,0 +1,33 @@
+package com.example.inventory.benchmarks;
+
+import com.example.inventory.models.Product;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+final class Catalog {
+
+    private static final String[] BRANDS = {"Apple", "Samsung", "Sony", "Lenovo", "Dell", "Asus", "Bose", "Canon"};
+
+    private Catalog() {
+    }
+
+    static Product product(int index) {
+        return Product.builder()
+                .name("Product " + index)
+                .brand(BRANDS[Math.floorMod(index, BRANDS.length)])
+                .price(BigDecimal.valueOf(10 + index % 500, 0).add(BigDecimal.valueOf(index % 100, 2)))
+                .quantity(index % 50)
+                .build();
+    }
+
+    static List<Product> products(int from, int count) {
+        return IntStream.range(from, from + count).mapToObj(Catalog::product).toList();
+    }
+
+    static Iterator<Product> stream(int count) {
+        return IntStream.range(0, count).mapToObj(Catalog::product).iterator();
+    }
+}
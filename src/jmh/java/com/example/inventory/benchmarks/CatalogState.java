@@ -0,0 +1,59 @@
+package com.example.inventory.benchmarks;
+
+import com.example.inventory.InventoryApplication;
+import com.example.inventory.repositories.ProductRepository;
+import com.example.inventory.services.ProductBulkService;
+import com.example.inventory.services.ProductService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Boots the application against a private in-memory H2 database seeded with catalogSize products,
+// subclasses can pass extra Spring properties through additionalArguments(). H2 is told to ignore the
+// pgjdbc data source properties set by the performance profile.
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    public ConfigurableApplicationContext context;
+
+    public ProductService productService;
+
+    public ProductBulkService productBulkService;
+
+    public ProductRepository productRepository;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + getClass().getSimpleName() + "-" + catalogSize
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;IGNORE_UNKNOWN_SETTINGS=TRUE",
+                "--logging.level.root=WARN"));
+        arguments.addAll(additionalArguments());
+        context = new SpringApplicationBuilder(InventoryApplication.class).run(arguments.toArray(String[]::new));
+        productService = context.getBean(ProductService.class);
+        productBulkService = context.getBean(ProductBulkService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        productBulkService.upsertProducts(Catalog.stream(catalogSize));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    protected List<String> additionalArguments() {
+        return List.of();
+    }
+}
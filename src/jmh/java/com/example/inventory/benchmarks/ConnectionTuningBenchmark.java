@@ -0,0 +1,55 @@
+package com.example.inventory.benchmarks;
+
+import com.example.inventory.dto.BulkItemResult;
+import com.example.inventory.dto.ProductSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Compares the stock Spring Boot settings ("baseline" is a profile without a properties file) with the
+// performance profile under concurrent load, where pool sizing and JDBC batching make the difference.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class ConnectionTuningBenchmark {
+
+    private static final int BULK_SIZE = 500;
+
+    public static class ProfileState extends CatalogState {
+
+        @Param({"baseline", "performance"})
+        public String profile;
+
+        @Override
+        protected List<String> additionalArguments() {
+            return List.of("--spring.profiles.active=" + profile);
+        }
+    }
+
+    @Benchmark
+    public List<ProductSummary> getProductsPage(ProfileState state) {
+        long after = ThreadLocalRandom.current().nextLong(state.catalogSize);
+        return state.productService.getProducts(after, 100);
+    }
+
+    @Benchmark
+    public List<ProductSummary> searchProducts(ProfileState state) {
+        String query = "product " + ThreadLocalRandom.current().nextInt(state.catalogSize);
+        return state.productService.searchProducts(query, 0, 20);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<BulkItemResult> bulkUpsertProducts(ProfileState state) {
+        int from = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE - BULK_SIZE);
+        return state.productBulkService.upsertProducts(Catalog.products(from, BULK_SIZE).iterator());
+    }
+}
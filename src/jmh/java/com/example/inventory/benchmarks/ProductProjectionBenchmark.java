@@ -0,0 +1,36 @@
+package com.example.inventory.benchmarks;
+
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// The same keyset page loaded as managed entities and as ProductSummary projections, compare the
+// gc.alloc.rate.norm column (bytes per page) reported by the gc profiler.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductProjectionBenchmark {
+
+    private static final PageRequest PAGE = PageRequest.of(0, 100);
+
+    @Benchmark
+    public List<Product> entityPage(CatalogState state) {
+        return state.productRepository.findByIdGreaterThanOrderByIdAsc(randomCursor(state), PAGE);
+    }
+
+    @Benchmark
+    public List<ProductSummary> summaryPage(CatalogState state) {
+        return state.productRepository.findSummariesByIdGreaterThan(randomCursor(state), PAGE);
+    }
+
+    private static long randomCursor(CatalogState state) {
+        return ThreadLocalRandom.current().nextLong(Math.max(1, state.catalogSize - PAGE.getPageSize()));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.inventory.benchmarks;
+
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductReadBenchmark {
+
+    @Benchmark
+    public List<ProductSummary> getProductsPage(CatalogState state) {
+        long after = ThreadLocalRandom.current().nextLong(state.catalogSize);
+        return state.productService.getProducts(after, 100);
+    }
+
+    @Benchmark
+    public List<ProductSummary> searchProducts(CatalogState state) {
+        String query = "product " + ThreadLocalRandom.current().nextInt(state.catalogSize);
+        return state.productService.searchProducts(query, 0, 20);
+    }
+
+    @Benchmark
+    public Optional<Product> getProductById(CatalogState state) {
+        long id = 1 + ThreadLocalRandom.current().nextLong(state.catalogSize);
+        return state.productService.getProductById(id);
+    }
+}
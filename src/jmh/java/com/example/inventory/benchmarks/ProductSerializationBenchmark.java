@@ -0,0 +1,90 @@
+package com.example.inventory.benchmarks;
+
+import com.example.inventory.models.Product;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Wire formats offered by ProductController: JSON (optionally gzip-compressed as with server.compression), Smile
+// and CBOR. The encoded size of the list is printed once per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    public int listSize;
+
+    @Param({"json", "json-gzip", "smile", "cbor"})
+    public String format;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private boolean gzip;
+
+    private List<Product> products;
+
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = switch (format) {
+            case "smile" -> new SmileMapper();
+            case "cbor" -> new CBORMapper();
+            default -> new ObjectMapper();
+        };
+        gzip = format.equals("json-gzip");
+        writer = objectMapper.writerFor(new TypeReference<List<Product>>() {
+        });
+        reader = objectMapper.readerFor(new TypeReference<List<Product>>() {
+        });
+        products = Catalog.products(0, listSize);
+        payload = serializeProducts();
+        System.out.printf("%n%s payload for %d products: %d bytes%n", format, listSize, payload.length);
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws IOException {
+        if (!gzip) {
+            return writer.writeValueAsBytes(products);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(bytes)) {
+            writer.writeValue(output, products);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<Product> deserializeProducts() throws IOException {
+        if (!gzip) {
+            return reader.readValue(payload);
+        }
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return reader.readValue(input);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.inventory.benchmarks;
+
+import com.example.inventory.dto.BulkItemResult;
+import com.example.inventory.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProductWriteBenchmark {
+
+    private static final int BULK_SIZE = 1000;
+
+    @Benchmark
+    public Product saveProduct(CatalogState state) {
+        return state.productService.saveProduct(Catalog.product(ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE)));
+    }
+
+    // reported per product so the score is directly comparable with saveProduct
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<BulkItemResult> bulkUpsertProducts(CatalogState state) {
+        int from = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE - BULK_SIZE);
+        return state.productBulkService.upsertProducts(Catalog.products(from, BULK_SIZE).iterator());
+    }
+}
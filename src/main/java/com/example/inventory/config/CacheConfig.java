@@ -0,0 +1,26 @@
+package com.example.inventory.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS_CACHE = "products";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${inventory.cache.products.spec:maximumSize=10000,expireAfterWrite=10m}") String productsCacheSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(PRODUCTS_CACHE);
+        cacheManager.setCaffeine(Caffeine.from(productsCacheSpec).recordStats());
+        // Puts and evictions issued inside a transaction are applied after commit, so a reader
+        // can't re-cache a row that is about to change.
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.inventory.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+// HTTP Basic sends the password with every request, so a plain BCrypt encoder pays the full hash each time.
+// Successful matches are remembered under an HMAC of (stored hash, raw password) with a key generated per
+// process, so neither the password nor anything reusable outside this JVM ends up in memory. Changing a
+// user's password changes the stored hash and therefore misses the cache; failures are never cached.
+public class CachingPasswordEncoder implements PasswordEncoder {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final PasswordEncoder delegate;
+
+    private final Cache<String, Boolean> verifiedCredentials;
+
+    private final SecretKeySpec key;
+
+    public CachingPasswordEncoder(PasswordEncoder delegate, String cacheSpec) {
+        this.delegate = delegate;
+        this.verifiedCredentials = Caffeine.from(cacheSpec).build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        String digest = digest(rawPassword, encodedPassword);
+        if (verifiedCredentials.getIfPresent(digest) != null) {
+            return true;
+        }
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        if (matches) {
+            verifiedCredentials.put(digest, Boolean.TRUE);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private String digest(CharSequence rawPassword, String encodedPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
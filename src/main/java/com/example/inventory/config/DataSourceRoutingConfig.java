@@ -0,0 +1,68 @@
+package com.example.inventory.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Opt-in primary/replica split. The primary keeps the regular spring.datasource.* settings, each URL in
+// inventory.datasource.replica-urls gets its own pool with the same credentials and Hikari settings.
+@Configuration
+@ConditionalOnProperty(name = "inventory.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                       @Value("${inventory.datasource.replica-urls:}") List<String> replicaUrls,
+                                                       @Value("${inventory.datasource.routing.read-your-writes-window:5s}") Duration readYourWritesWindow) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String replicaUrl : replicaUrls) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(replicaUrl.trim());
+            config.setPoolName(ReadWriteRoutingDataSource.replicaKey(replicas.size()));
+            config.setReadOnly(true);
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, new ReadYourWritesTracker(readYourWritesWindow));
+    }
+
+    // static, so the auto-proxy creator finds it before the repositories are created
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor readFromPrimaryAdvisor() {
+        return new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forMethodAnnotation(ReadFromPrimary.class),
+                (MethodInterceptor) ReadWriteRoutingDataSource::readFromPrimary);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.inventory.config;
+
+import com.example.inventory.dto.BrandSummary;
+import com.example.inventory.dto.BulkItemResult;
+import com.example.inventory.dto.ProductStock;
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.events.ProductChangedEvent;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+
+// Types that only reach Jackson or Hibernate reflectively (List<?> responses, JPQL constructor expressions,
+// hand-written NDJSON and server-sent events), so AOT processing can't infer them from controller signatures.
+@Configuration
+@RegisterReflectionForBinding({ProductSummary.class, BrandSummary.class, ProductStock.class, BulkItemResult.class,
+        ProductChangedEvent.class})
+public class NativeHintsConfig {
+}
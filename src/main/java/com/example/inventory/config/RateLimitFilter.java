@@ -0,0 +1,118 @@
+package com.example.inventory.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Runs after Spring Security, so buckets are keyed by the authenticated user and the matched endpoint rule.
+// Requests over the user's rate get 429; while the primary pool has too many waiters everything gets 503 so
+// callers back off instead of queueing behind connection-timeout.
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String DEFAULT_ENDPOINT = "default";
+
+    private final RateLimitProperties properties;
+
+    private final HikariDataSource hikariDataSource;
+
+    private final MeterRegistry meterRegistry;
+
+    private final List<EndpointRule> rules = new ArrayList<>();
+
+    private final Cache<String, TokenBucket> buckets;
+
+    public RateLimitFilter(RateLimitProperties properties, HikariDataSource hikariDataSource, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hikariDataSource = hikariDataSource;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.from(properties.getBucketSpec()).build();
+        for (Map.Entry<String, RateLimitProperties.Endpoint> endpoint : properties.getEndpoints().entrySet()) {
+            rules.add(new EndpointRule(endpoint.getKey(), endpoint.getValue(),
+                    PathPatternParser.defaultInstance.parse(endpoint.getValue().getPath())));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointRule rule = match(request);
+        String endpoint = rule == null ? DEFAULT_ENDPOINT : rule.name();
+        // checked first, a shed request doesn't cost the caller a token
+        if (overloaded()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "overloaded", endpoint, TimeUnit.SECONDS.toNanos(1), "Service overloaded, retry later");
+            return;
+        }
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(clientKey(request) + " " + endpoint, key -> rule == null
+                ? new TokenBucket(properties.getDefaultLimit().getCapacity(), properties.getDefaultLimit().getRefillPerSecond(), now)
+                : new TokenBucket(rule.endpoint().getCapacity(), rule.endpoint().getRefillPerSecond(), now));
+
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "rate_limited", endpoint, waitNanos, "Rate limit exceeded, retry later");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private EndpointRule match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+        for (EndpointRule rule : rules) {
+            String method = rule.endpoint().getMethod();
+            if ((method == null || method.equalsIgnoreCase(request.getMethod())) && rule.pattern().matches(path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : request.getRemoteAddr();
+    }
+
+    private boolean overloaded() {
+        if (hikariDataSource == null) {
+            return false;
+        }
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        return pool != null && pool.getThreadsAwaitingConnection() > properties.getMaxThreadsAwaitingConnection();
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String reason, String endpoint,
+                        long waitNanos, String message) throws IOException {
+        meterRegistry.counter("inventory.requests.rejected", "reason", reason, "endpoint", endpoint).increment();
+        log.debug("Rejected request to {} ({})", endpoint, reason);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+
+    private record EndpointRule(String name, RateLimitProperties.Endpoint endpoint, PathPattern pattern) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.inventory.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Validated at startup: a rule without a path or with a zero rate fails the context instead of the first request.
+@Data
+@Validated
+@ConfigurationProperties(prefix = "inventory.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled;
+
+    // bounds the number of (user, endpoint) buckets kept in memory
+    private String bucketSpec = "maximumSize=100000,expireAfterAccess=10m";
+
+    // requests are shed with 503 while more threads than this wait for a pooled connection
+    private int maxThreadsAwaitingConnection = 20;
+
+    @Valid
+    private Limit defaultLimit = new Limit();
+
+    private Map<String, @Valid Endpoint> endpoints = new LinkedHashMap<>();
+
+    @Data
+    public static class Limit {
+
+        @Positive
+        private int capacity = 200;
+
+        @Positive
+        private double refillPerSecond = 100;
+    }
+
+    @Data
+    public static class Endpoint {
+
+        private String method;
+
+        @NotBlank
+        private String path;
+
+        @Positive
+        private int capacity;
+
+        @Positive
+        private double refillPerSecond;
+    }
+}
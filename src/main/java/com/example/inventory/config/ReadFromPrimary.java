@@ -0,0 +1,15 @@
+package com.example.inventory.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Routes a read-only method to the primary when the primary/replica split is enabled, without counting
+// it as a write of the current user, so their later reads still go to the replicas.
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadFromPrimary {
+}
@@ -0,0 +1,99 @@
+package com.example.inventory.config;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Read-only transactions are spread round-robin over the replicas, everything else goes to the primary.
+// The lookup happens when a connection is first needed, so this must sit behind a
+// LazyConnectionDataSourceProxy for the transaction's read-only flag to be set by then.
+//
+// Reads marked @ReadFromPrimary go to the primary as well, but aren't recorded as writes.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private final List<? extends DataSource> replicas;
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    private static final ThreadLocal<Boolean> primaryReads = new ThreadLocal<>();
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas,
+                                      ReadYourWritesTracker readYourWritesTracker) {
+        this.replicas = replicas;
+        this.readYourWritesTracker = readYourWritesTracker;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(replicaKey(i), replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        boolean primaryRead = primaryReads.get() != null;
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (primaryRead) {
+                return PRIMARY;
+            }
+            // the window starts once the write is visible on the primary
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        readYourWritesTracker.recordWrite();
+                    }
+                });
+            } else {
+                readYourWritesTracker.recordWrite();
+            }
+            return PRIMARY;
+        }
+        if (primaryRead || replicas.isEmpty() || readYourWritesTracker.wroteRecently()) {
+            return PRIMARY;
+        }
+        return replicaKey(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+    }
+
+    // Runs a @ReadFromPrimary method, see DataSourceRoutingConfig.
+    static Object readFromPrimary(MethodInvocation invocation) throws Throwable {
+        if (primaryReads.get() != null) {
+            return invocation.proceed();
+        }
+        primaryReads.set(Boolean.TRUE);
+        try {
+            return invocation.proceed();
+        } finally {
+            primaryReads.remove();
+        }
+    }
+
+    // Only the replica pools are owned here, the primary is a bean of its own.
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    static String replicaKey(int index) {
+        return "replica-" + index;
+    }
+}
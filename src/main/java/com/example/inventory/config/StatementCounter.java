@@ -0,0 +1,28 @@
+package com.example.inventory.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts the SQL statements Hibernate prepares on the current thread between start() and stop().
+public class StatementCounter implements StatementInspector {
+
+    private final ThreadLocal<int[]> counts = new ThreadLocal<>();
+
+    public void start() {
+        counts.set(new int[1]);
+    }
+
+    public int stop() {
+        int[] count = counts.get();
+        counts.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = counts.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.inventory.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket kept as a single "theoretical arrival time" (GCRA): each request pushes it one refill interval
+// further, and a request is allowed while it stays within capacity intervals of now. One CAS per request, no lock.
+public class TokenBucket {
+
+    private final long intervalNanos;
+
+    private final long burstNanos;
+
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+        if (capacity <= 0 || !(refillPerSecond > 0)) {
+            throw new IllegalArgumentException("Token bucket needs a positive capacity and refill rate, got "
+                    + capacity + " and " + refillPerSecond);
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        this.burstNanos = intervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanoseconds until the next one is available.
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long excess = next - nowNanos - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -1,38 +1,178 @@
 package com.example.inventory.controllers;
 
+import com.example.inventory.dto.BrandSummary;
+import com.example.inventory.dto.BulkItemResult;
+import com.example.inventory.dto.PriceBucket;
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.dto.StockAdjustment;
+import com.example.inventory.dto.StockAdjustmentBatch;
 import com.example.inventory.models.Product;
+import com.example.inventory.services.AvailabilityIndex;
+import com.example.inventory.services.OffHeapStockTable;
+import com.example.inventory.services.ProductBulkService;
+import com.example.inventory.services.ProductChangeFeed;
 import com.example.inventory.services.ProductService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1/products")
 public class ProductController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final ResponseEntity<Void> AVAILABLE = ResponseEntity.noContent().build();
+
+    private static final ResponseEntity<Void> UNAVAILABLE = ResponseEntity.status(HttpStatus.CONFLICT).build();
+
+    private static final ResponseEntity<Void> NOT_FOUND = ResponseEntity.notFound().build();
+
+    private static final ResponseEntity<Void> BAD_REQUEST = ResponseEntity.badRequest().build();
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductBulkService productBulkService;
+
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private AvailabilityIndex availabilityIndex;
+
+    @Value("${inventory.products.page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${inventory.products.search.page-size:20}")
+    private int defaultSearchPageSize;
+
+    @Value("${inventory.products.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${inventory.products.batch.max-ids:500}")
+    private int maxBatchIds;
+
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<List<?>> getAllProducts(@RequestParam(required = false) Long after,
+                                                  @RequestParam(required = false) Integer size,
+                                                  @RequestParam(required = false) String fields) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        List<String> selectedFields = parseFields(fields);
+        List<ProductSummary> products = productService.getProducts(after, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (products.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(products.get(products.size() - 1).id()));
+        }
+        return response.body(selectFields(products, selectedFields));
+    }
+
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public void streamProducts(@RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.APPLICATION_NDJSON_VALUE) String accept,
+                               @RequestParam(required = false) String fields,
+                               HttpServletResponse response) throws IOException {
+        List<String> selectedFields = fields == null ? null : ProductSummary.parseFields(fields);
+        boolean jsonArray = accept.contains(MediaType.APPLICATION_JSON_VALUE) && !accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setContentType(jsonArray ? MediaType.APPLICATION_JSON_VALUE : MediaType.APPLICATION_NDJSON_VALUE);
+
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (SequenceWriter sequenceWriter = jsonArray
+                ? writer.writeValuesAsArray(response.getOutputStream())
+                : writer.withRootValueSeparator("\n").writeValues(response.getOutputStream())) {
+            productService.streamProducts(product -> write(sequenceWriter, selectedFields == null ? product : product.select(selectedFields)));
+        }
+    }
+
+    // Browsers' EventSource resends the last seen id as Last-Event-ID on reconnect, missed changes are replayed from there.
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return productChangeFeed.subscribe(lastEventId);
+    }
+
+    // ids=1,2,3 resolves many products in one round trip; unknown ids are left out of the response.
+    @GetMapping("/batch")
+    public ResponseEntity<List<Product>> getProductsByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > maxBatchIds) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    // 204 when quantity units are in stock, 409 when not, 404 for unknown products. With the availability
+    // index enabled the check reads one off-heap slot and the responses are shared constants, so a call
+    // allocates close to nothing beyond the request itself.
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<Void> checkAvailability(@PathVariable long id, @RequestParam(defaultValue = "1") int quantity) {
+        if (quantity < 1) {
+            return BAD_REQUEST;
+        }
+        int available = availabilityIndex != null
+                ? availabilityIndex.getQuantity(id)
+                : productService.getAvailableQuantity(id);
+        if (available == OffHeapStockTable.ABSENT) {
+            return NOT_FOUND;
+        }
+        return available >= quantity ? AVAILABLE : UNAVAILABLE;
+    }
+
+    // Served from the in-memory brand rollup, a dashboard refresh doesn't touch the products table.
+    @GetMapping("/aggregates/brands")
+    public List<BrandSummary> getBrandSummaries() {
+        return productService.getBrandSummaries();
+    }
+
+    // Pass brand to drill down from a brand summary into its price distribution. The width is bound as a
+    // NUMERIC(19, 2), so finer widths are refused rather than rounded.
+    @GetMapping("/aggregates/price-buckets")
+    public ResponseEntity<List<PriceBucket>> getPriceBuckets(@RequestParam(defaultValue = "10") BigDecimal width,
+                                                             @RequestParam(required = false) String brand) {
+        if (width.signum() <= 0 || width.stripTrailingZeros().scale() > 2) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productService.getPriceBuckets(width, brand));
     }
 
+    // The ETag carries the entity version; a matching If-None-Match is answered with 304 by Spring MVC.
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
         Optional<Product> product = productService.getProductById(id);
-        return product.map(ResponseEntity::ok)
+        return product.map(p -> okWithETag(p).body(p))
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
     }
 
     @GetMapping("/search")
-    public List<Product> searchProducts(@RequestParam String query) {
-        return productService.searchProducts(query);
+    public List<?> searchProducts(@RequestParam String query,
+                                  @RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(required = false) Integer size,
+                                  @RequestParam(required = false) String fields) {
+        int pageSize = size == null ? defaultSearchPageSize : Math.max(1, Math.min(size, maxPageSize));
+        List<String> selectedFields = parseFields(fields);
+        return selectFields(productService.searchProducts(query, Math.max(page, 0), pageSize), selectedFields);
     }
 
     @PostMapping
@@ -41,15 +181,46 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public List<BulkItemResult> bulkUpsertProducts(HttpServletRequest request) throws IOException {
+        // a JSON array and newline-delimited objects are both read lazily, one product at a time
+        try (MappingIterator<Product> products = objectMapper.readerFor(Product.class).readValues(request.getInputStream())) {
+            return productBulkService.upsertProducts(products);
+        }
+    }
+
+    @PostMapping("/{id}/stock")
+    public ResponseEntity<Void> adjustStock(@PathVariable Long id, @Valid @RequestBody StockAdjustment adjustment) {
+        productService.adjustStock(id, adjustment.getDelta());
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/stock")
+    public ResponseEntity<Void> adjustStock(@Valid @RequestBody StockAdjustmentBatch batch) {
+        productService.adjustStock(batch.getAdjustments());
+        return ResponseEntity.noContent().build();
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @Valid @RequestBody Product product) {
+    public ResponseEntity<Product> updateProduct(@PathVariable Long id,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 @Valid @RequestBody Product product) {
         Optional<Product> originalProduct = productService.getProductById(id);
         if (!originalProduct.isPresent()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
+        Long currentVersion = originalProduct.get().getVersion();
+        if (ifMatch != null && !eTagMatches(ifMatch, currentVersion)) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(null);
+        }
         product.setId(id);
+        // the version the client last saw is checked by Hibernate when the row is updated,
+        // clients that send neither If-Match nor a version keep last-writer-wins semantics
+        if (ifMatch != null || product.getVersion() == null) {
+            product.setVersion(currentVersion);
+        }
         Product updatedProduct = productService.saveProduct(product);
-        return ResponseEntity.ok(updatedProduct);
+        return okWithETag(updatedProduct).body(updatedProduct);
     }
 
     @DeleteMapping("/{id}")
@@ -58,7 +229,61 @@ public class ProductController {
     }
 
     @GetMapping("/leftovers")
-    public List<Product> getLeftoverProducts() {
-        return productService.getLeftoverProducts();
+    public List<?> getLeftoverProducts(@RequestParam(required = false) Integer threshold,
+                                       @RequestParam(required = false) String brand,
+                                       @RequestParam(defaultValue = "0") int page,
+                                       @RequestParam(required = false) Integer size,
+                                       @RequestParam(required = false) String fields) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        List<String> selectedFields = parseFields(fields);
+        return selectFields(productService.getLeftoverProducts(threshold, brand, Math.max(page, 0), pageSize), selectedFields);
+    }
+
+    // fields=id,name,quantity trims each product down to the listed properties, in that order. The
+    // parameter is validated before any query runs, so unknown fields are rejected without touching the database.
+    private static List<String> parseFields(String fields) {
+        return fields == null ? null : ProductSummary.parseFields(fields);
+    }
+
+    private static List<?> selectFields(List<ProductSummary> products, List<String> selectedFields) {
+        if (selectedFields == null) {
+            return products;
+        }
+        return products.stream().map(product -> product.select(selectedFields)).toList();
+    }
+
+    private static ResponseEntity.BodyBuilder okWithETag(Product product) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (product.getVersion() != null) {
+            response.eTag(String.valueOf(product.getVersion()));
+        }
+        return response;
+    }
+
+    static boolean eTagMatches(String ifMatch, Long version) {
+        for (String eTag : ifMatch.split(",")) {
+            String value = eTag.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            if (version != null && value.equals(String.valueOf(version))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void write(SequenceWriter writer, Object product) {
+        try {
+            writer.write(product);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,62 @@
+package com.example.inventory.controllers;
+
+import com.example.inventory.dto.SnapshotSummary;
+import com.example.inventory.dto.SnapshotVerification;
+import com.example.inventory.services.ProductSnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+// Admin-only, see SecurityConfig. Snapshots live in inventory.snapshots.directory on this instance.
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/v1/admin/snapshots")
+public class SnapshotController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    @Autowired
+    private ProductSnapshotService productSnapshotService;
+
+    @PostMapping
+    public ResponseEntity<SnapshotSummary> createSnapshot() {
+        SnapshotSummary summary = productSnapshotService.export();
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{name}")
+                .buildAndExpand(summary.name())
+                .toUri();
+        return ResponseEntity.created(location).body(summary);
+    }
+
+    @GetMapping("/{name}")
+    public ResponseEntity<Resource> downloadSnapshot(@PathVariable String name) {
+        Resource snapshot = new FileSystemResource(productSnapshotService.resolve(name));
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(name).build().toString())
+                .body(snapshot);
+    }
+
+    @GetMapping("/{name}/verification")
+    public SnapshotVerification verifySnapshot(@PathVariable String name) {
+        return productSnapshotService.verify(name);
+    }
+
+    @PostMapping("/{name}/import")
+    public SnapshotSummary importSnapshot(@PathVariable String name) {
+        return productSnapshotService.importSnapshot(name);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.inventory.controllers;
+
+import com.example.inventory.dto.StockAdjustment;
+import com.example.inventory.models.StockLevel;
+import com.example.inventory.services.StockService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/v1")
+public class StockController {
+
+    private static final String LOCATION_PATTERN = "[A-Za-z0-9_-]{1,64}";
+
+    @Autowired
+    private StockService stockService;
+
+    @Value("${inventory.products.page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${inventory.products.max-page-size:1000}")
+    private int maxPageSize;
+
+    @GetMapping("/products/{id}/stock")
+    public List<StockLevel> getStockLevels(@PathVariable Long id) {
+        return stockService.getStockLevels(id);
+    }
+
+    @PostMapping("/products/{id}/stock/{location}")
+    public ResponseEntity<Void> adjustStock(@PathVariable Long id,
+                                            @PathVariable @Pattern(regexp = LOCATION_PATTERN) String location,
+                                            @Valid @RequestBody StockAdjustment adjustment) {
+        stockService.adjustStock(id, location, adjustment.getDelta());
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/locations/{location}/stock")
+    public ResponseEntity<List<StockLevel>> getLocationStock(@PathVariable @Pattern(regexp = LOCATION_PATTERN) String location,
+                                                             @RequestParam(required = false) Long after,
+                                                             @RequestParam(required = false) Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        List<StockLevel> stockLevels = stockService.getLocationStock(location, after, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (stockLevels.size() == pageSize) {
+            response.header(ProductController.NEXT_CURSOR_HEADER, String.valueOf(stockLevels.get(stockLevels.size() - 1).getProductId()));
+        }
+        return response.body(stockLevels);
+    }
+}
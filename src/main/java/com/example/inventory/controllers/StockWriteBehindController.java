@@ -0,0 +1,51 @@
+package com.example.inventory.controllers;
+
+import com.example.inventory.dto.StockAdjustmentBatch;
+import com.example.inventory.dto.StockSubmission;
+import com.example.inventory.services.StockWriteBehindBuffer;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+// Only mapped when the write-behind buffer is enabled. 202 means the deltas are queued (and logged,
+// depending on inventory.stock.write-behind.durability), not that stock was available; the Location
+// header points at the submission, which reports the rejected products once the deltas are flushed.
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/v1/products/stock/async")
+@ConditionalOnProperty(name = "inventory.stock.write-behind.enabled", havingValue = "true")
+public class StockWriteBehindController {
+
+    @Autowired
+    private StockWriteBehindBuffer stockWriteBehindBuffer;
+
+    @PostMapping
+    public ResponseEntity<StockSubmission> submitAdjustments(@Valid @RequestBody StockAdjustmentBatch batch) {
+        StockSubmission submission = stockWriteBehindBuffer.submit(batch.getAdjustments());
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(submission.id())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(submission);
+    }
+
+    // 404 once the submission is older than inventory.stock.write-behind.submission-retention
+    @GetMapping("/{id}")
+    public ResponseEntity<StockSubmission> getSubmission(@PathVariable String id) {
+        return stockWriteBehindBuffer.getSubmission(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.inventory.dto;
+
+import java.math.BigDecimal;
+
+// inventoryValue is the sum of price * quantity, lowStockProducts counts products below
+// inventory.leftovers.threshold.
+public record BrandSummary(String brand, Long products, Long quantity, BigDecimal inventoryValue, Long lowStockProducts) {
+}
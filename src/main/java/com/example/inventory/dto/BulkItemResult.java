@@ -0,0 +1,34 @@
+package com.example.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResult {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        INVALID,
+        NOT_FOUND,
+        CONFLICT,
+        FAILED
+    }
+
+    private int index;
+
+    private Status status;
+
+    private Long id;
+
+    private Map<String, String> errors;
+}
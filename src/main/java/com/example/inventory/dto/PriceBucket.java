@@ -0,0 +1,7 @@
+package com.example.inventory.dto;
+
+import java.math.BigDecimal;
+
+// Products with minPrice <= price < maxPrice.
+public record PriceBucket(BigDecimal minPrice, BigDecimal maxPrice, Long products, Long quantity) {
+}
@@ -0,0 +1,10 @@
+package com.example.inventory.dto;
+
+public interface PriceBucketView {
+
+    Long getBucket();
+
+    Long getProducts();
+
+    Long getQuantity();
+}
@@ -0,0 +1,12 @@
+package com.example.inventory.dto;
+
+public interface ProductQuantityView {
+
+    Long getId();
+
+    String getBrand();
+
+    Integer getQuantity();
+
+    Long getVersion();
+}
@@ -0,0 +1,4 @@
+package com.example.inventory.dto;
+
+public record ProductStock(Long id, Integer quantity) {
+}
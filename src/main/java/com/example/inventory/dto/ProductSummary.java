@@ -0,0 +1,49 @@
+package com.example.inventory.dto;
+
+import com.example.inventory.exception.UnknownFieldException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Read-only view of a product for list endpoints, built by JPQL constructor expressions so no managed
+// entities (and no dirty-checking snapshots) are created. Serializes to the same JSON as Product.
+public record ProductSummary(Long id, String name, String brand, BigDecimal price, Integer quantity, Long version) {
+
+    public static final List<String> FIELDS = List.of("id", "name", "brand", "price", "quantity", "version");
+
+    // Parses a comma-separated fields parameter, names outside FIELDS are rejected as a whole.
+    public static List<String> parseFields(String fields) {
+        List<String> selectedFields = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .distinct()
+                .toList();
+        List<String> unknownFields = selectedFields.stream()
+                .filter(field -> !FIELDS.contains(field))
+                .toList();
+        if (!unknownFields.isEmpty()) {
+            throw new UnknownFieldException(unknownFields);
+        }
+        return selectedFields.isEmpty() ? FIELDS : selectedFields;
+    }
+
+    public Map<String, Object> select(Collection<String> fields) {
+        Map<String, Object> selected = new LinkedHashMap<>();
+        for (String field : fields) {
+            selected.put(field, switch (field) {
+                case "id" -> id;
+                case "name" -> name;
+                case "brand" -> brand;
+                case "price" -> price;
+                case "quantity" -> quantity;
+                case "version" -> version;
+                default -> throw new IllegalArgumentException("Unknown product field " + field);
+            });
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.inventory.dto;
+
+public record SnapshotSummary(String name, long rows, long bytes, long durationMillis) {
+}
@@ -0,0 +1,7 @@
+package com.example.inventory.dto;
+
+// Result of scanning a snapshot file: row count, id range, quantity total and a CRC32 of the whole
+// file, so two snapshots (or a snapshot and its copy) can be compared without touching the database.
+public record SnapshotVerification(String name, long rows, long bytes, long minId, long maxId,
+                                   long totalQuantity, boolean ordered, String crc32) {
+}
@@ -0,0 +1,19 @@
+package com.example.inventory.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockAdjustment {
+
+    private Long productId;
+
+    @NotNull(message="Stock delta should be set")
+    private Integer delta;
+}
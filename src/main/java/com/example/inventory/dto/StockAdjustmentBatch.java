@@ -0,0 +1,32 @@
+package com.example.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Objects;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockAdjustmentBatch {
+
+    @NotEmpty(message="Stock adjustments should be set")
+    private List<@Valid @NotNull StockAdjustment> adjustments;
+
+    @JsonIgnore
+    @AssertTrue(message="Every stock adjustment should have a product id")
+    public boolean isProductIdsSet() {
+        return adjustments == null || adjustments.stream()
+                .filter(Objects::nonNull)
+                .allMatch(adjustment -> adjustment.getProductId() != null);
+    }
+}
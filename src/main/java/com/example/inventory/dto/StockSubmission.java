@@ -0,0 +1,12 @@
+package com.example.inventory.dto;
+
+import java.util.List;
+
+// Outcome of one write-behind request. REJECTED means at least one of its deltas was dropped,
+// rejectedProductIds lists their products; the other deltas were applied.
+public record StockSubmission(String id, Status status, List<Long> rejectedProductIds) {
+
+    public enum Status {
+        PENDING, APPLIED, REJECTED
+    }
+}
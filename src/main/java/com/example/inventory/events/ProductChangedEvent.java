@@ -0,0 +1,41 @@
+package com.example.inventory.events;
+
+import com.example.inventory.models.Product;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// previous is the product as it was before a SAVED or DELETED change, when the publisher had it at hand.
+// It is only for in-process listeners and is left out of the change feed. quantity is the product's
+// quantity right after a STOCK_ADJUSTED change, when the publisher read it.
+public record ProductChangedEvent(Type type, Long productId, Product product, Integer quantityDelta,
+                                  Integer quantity, @JsonIgnore Product previous) {
+
+    public enum Type {
+        SAVED,
+        DELETED,
+        STOCK_ADJUSTED
+    }
+
+    public static ProductChangedEvent saved(Product product) {
+        return saved(product, null);
+    }
+
+    public static ProductChangedEvent saved(Product product, Product previous) {
+        return new ProductChangedEvent(Type.SAVED, product.getId(), product, null, null, previous);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return deleted(productId, null);
+    }
+
+    public static ProductChangedEvent deleted(Long productId, Product previous) {
+        return new ProductChangedEvent(Type.DELETED, productId, null, null, null, previous);
+    }
+
+    public static ProductChangedEvent stockAdjusted(Long productId, int quantityDelta) {
+        return stockAdjusted(productId, quantityDelta, null);
+    }
+
+    public static ProductChangedEvent stockAdjusted(Long productId, int quantityDelta, Integer quantity) {
+        return new ProductChangedEvent(Type.STOCK_ADJUSTED, productId, null, quantityDelta, quantity, null);
+    }
+}
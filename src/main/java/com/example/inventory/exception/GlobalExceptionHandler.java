@@ -1,6 +1,8 @@
 package com.example.inventory.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -14,6 +16,7 @@ import java.util.Map;
 
 @Slf4j
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -27,4 +30,42 @@ public class GlobalExceptionHandler {
         });
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Object> handleInsufficientStockException(InsufficientStockException ex, WebRequest request) {
+        log.info("Insufficient stock for products {}", ex.getProductIds());
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", ex.getMessage());
+        body.put("productIds", ex.getProductIds());
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(UnknownFieldException.class)
+    public ResponseEntity<Object> handleUnknownFieldException(UnknownFieldException ex, WebRequest request) {
+        log.info("Unknown fields requested {}", ex.getFields());
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", ex.getMessage());
+        body.put("fields", ex.getFields());
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ProductNotFoundException.class)
+    public ResponseEntity<Object> handleProductNotFoundException(ProductNotFoundException ex, WebRequest request) {
+        log.info("Product {} not found", ex.getProductId());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    @ExceptionHandler(SnapshotNotFoundException.class)
+    public ResponseEntity<Object> handleSnapshotNotFoundException(SnapshotNotFoundException ex, WebRequest request) {
+        log.info("Snapshot {} not found", ex.getName());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex, WebRequest request) {
+        log.info("Optimistic locking conflict: {}", ex.getMessage());
+        Map<String, String> body = new HashMap<>();
+        body.put("message", "The product was modified concurrently, reload it and retry");
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
 }
@@ -0,0 +1,16 @@
+package com.example.inventory.exception;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class InsufficientStockException extends RuntimeException {
+
+    private final List<Long> productIds;
+
+    public InsufficientStockException(List<Long> productIds) {
+        super("Insufficient stock");
+        this.productIds = productIds;
+    }
+}
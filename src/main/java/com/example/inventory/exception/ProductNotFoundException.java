@@ -0,0 +1,14 @@
+package com.example.inventory.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ProductNotFoundException extends RuntimeException {
+
+    private final Long productId;
+
+    public ProductNotFoundException(Long productId) {
+        super("Product " + productId + " not found");
+        this.productId = productId;
+    }
+}
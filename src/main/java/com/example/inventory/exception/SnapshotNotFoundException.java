@@ -0,0 +1,14 @@
+package com.example.inventory.exception;
+
+import lombok.Getter;
+
+@Getter
+public class SnapshotNotFoundException extends RuntimeException {
+
+    private final String name;
+
+    public SnapshotNotFoundException(String name) {
+        super("Snapshot " + name + " not found");
+        this.name = name;
+    }
+}
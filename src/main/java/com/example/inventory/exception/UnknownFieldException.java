@@ -0,0 +1,16 @@
+package com.example.inventory.exception;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class UnknownFieldException extends RuntimeException {
+
+    private final List<String> fields;
+
+    public UnknownFieldException(List<String> fields) {
+        super("Unknown fields");
+        this.fields = fields;
+    }
+}
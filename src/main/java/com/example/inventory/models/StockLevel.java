@@ -0,0 +1,31 @@
+package com.example.inventory.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Stock of one product at one location. Product.quantity holds the total over all locations and is
+// updated in the same transaction, so reads never have to sum these rows.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@IdClass(StockLevelId.class)
+@Table(name = "stock_levels", indexes = @Index(name = "stock_levels_location_idx", columnList = "location, product_id"))
+public class StockLevel {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(length = 64)
+    private String location;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+}
@@ -0,0 +1,17 @@
+package com.example.inventory.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockLevelId implements Serializable {
+
+    private Long productId;
+
+    private String location;
+}
@@ -0,0 +1,29 @@
+package com.example.inventory.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Last write-behind log segment of a node whose deltas are in the database, written in the same
+// transaction as the deltas so replaying the log after a crash never applies a segment twice.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "write_behind_checkpoints")
+public class WriteBehindCheckpoint {
+
+    @Id
+    @Column(name = "node_id", length = 64)
+    private String nodeId;
+
+    @Column(name = "last_segment", nullable = false)
+    private Long lastSegment;
+
+}
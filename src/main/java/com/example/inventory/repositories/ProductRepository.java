@@ -1,16 +1,102 @@
 package com.example.inventory.repositories;
 
+import com.example.inventory.config.ReadFromPrimary;
+import com.example.inventory.dto.BrandSummary;
+import com.example.inventory.dto.PriceBucketView;
+import com.example.inventory.dto.ProductQuantityView;
+import com.example.inventory.dto.ProductStock;
+import com.example.inventory.dto.ProductSummary;
 import com.example.inventory.models.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductSearchRepository {
 
-    @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(p.brand) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Product> findByNameContainingOrBrandContaining(@Param("searchTerm") String searchTerm);
+    String SELECT_SUMMARY = "SELECT new com.example.inventory.dto.ProductSummary(p.id, p.name, p.brand, p.price, p.quantity, p.version) FROM Product p";
+
+    // bucket n holds the prices in [n * width, (n + 1) * width)
+    String SELECT_PRICE_BUCKETS = "SELECT bucket, COUNT(*) AS products, SUM(quantity) AS quantity"
+            + " FROM (SELECT CAST(FLOOR(price / CAST(:width AS NUMERIC(19, 2))) AS BIGINT) AS bucket, quantity FROM products";
+
+    // The inherited lookups run in read-only transactions and would be routed to a replica. Their results
+    // end up in the shared products cache or decide between 404 and 409, so they read from the primary.
+    @Override
+    @ReadFromPrimary
+    Optional<Product> findById(Long id);
+
+    @Override
+    @ReadFromPrimary
+    boolean existsById(Long id);
+
+    @Override
+    @ReadFromPrimary
+    List<Product> findAllById(Iterable<Long> ids);
 
     List<Product> findByQuantityLessThan(int quantity);
-}
\ No newline at end of file
+
+    @Query(SELECT_SUMMARY + " WHERE p.quantity < :quantity")
+    List<ProductSummary> findSummariesByQuantityLessThan(@Param("quantity") int quantity, Pageable pageable);
+
+    @Query(SELECT_SUMMARY + " WHERE p.brand = :brand AND p.quantity < :quantity")
+    List<ProductSummary> findSummariesByBrandAndQuantityLessThan(@Param("brand") String brand, @Param("quantity") int quantity, Pageable pageable);
+
+    @Query(SELECT_SUMMARY + " WHERE p.id IN :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.example.inventory.dto.BrandSummary(p.brand, COUNT(p), SUM(p.quantity), SUM(p.price * p.quantity),"
+            + " SUM(CASE WHEN p.quantity < :threshold THEN 1L ELSE 0L END)) FROM Product p GROUP BY p.brand")
+    List<BrandSummary> summarizeByBrand(@Param("threshold") int threshold);
+
+    @Query(value = SELECT_PRICE_BUCKETS + ") b GROUP BY bucket ORDER BY bucket", nativeQuery = true)
+    List<PriceBucketView> findPriceBuckets(@Param("width") BigDecimal width);
+
+    @Query(value = SELECT_PRICE_BUCKETS + " WHERE brand = :brand) b GROUP BY bucket ORDER BY bucket", nativeQuery = true)
+    List<PriceBucketView> findPriceBucketsByBrand(@Param("width") BigDecimal width, @Param("brand") String brand);
+
+    // re-reads committed state for the in-memory indexes, so it reads from the primary as well
+    @ReadFromPrimary
+    @Query("SELECT p.id AS id, p.brand AS brand, p.quantity AS quantity, p.version AS version FROM Product p WHERE p.id = :id")
+    Optional<ProductQuantityView> findQuantityViewById(@Param("id") Long id);
+
+    // loads of the in-memory indexes mustn't be older than the re-reads applied to them afterwards
+    @ReadFromPrimary
+    @Query("SELECT p.id AS id, p.brand AS brand, p.quantity AS quantity, p.version AS version FROM Product p WHERE p.quantity < :quantity")
+    List<ProductQuantityView> findQuantityViewsByQuantityLessThan(@Param("quantity") int quantity);
+
+    // The new quantity is checked as a bigint, so a delta that would overflow the column is refused like one
+    // that would go negative instead of failing the statement.
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :delta, p.version = p.version + 1 WHERE p.id = :id AND CAST(p.quantity AS Long) + :delta BETWEEN 0 AND 2147483647")
+    int adjustQuantity(@Param("id") Long id, @Param("delta") int delta);
+
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+    Integer findQuantityById(@Param("id") Long id);
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query(SELECT_SUMMARY + " WHERE p.id > :id ORDER BY p.id")
+    List<ProductSummary> findSummariesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    // loads the AvailabilityIndex, see findQuantityViewsByQuantityLessThan
+    @ReadFromPrimary
+    @Query("SELECT new com.example.inventory.dto.ProductStock(p.id, p.quantity) FROM Product p WHERE p.id > :id ORDER BY p.id")
+    List<ProductStock> findStockByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_SUMMARY + " ORDER BY p.id")
+    Stream<ProductSummary> streamSummaries();
+}
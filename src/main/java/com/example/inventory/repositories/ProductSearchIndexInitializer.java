@@ -0,0 +1,73 @@
+package com.example.inventory.repositories;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+public class ProductSearchIndexInitializer {
+
+    private static final Map<String, String> TRIGRAM_INDEXES = Map.of(
+            "products_name_trgm_idx", "ON products USING gin (LOWER(name) gin_trgm_ops)",
+            "products_brand_trgm_idx", "ON products USING gin (LOWER(brand) gin_trgm_ops)");
+
+    // a failed or cancelled CREATE INDEX CONCURRENTLY leaves an invalid index behind that IF NOT EXISTS would skip
+    private static final String SELECT_INDEX_VALID = "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile boolean trigramAvailable;
+
+    public boolean isTrigramAvailable() {
+        return trigramAvailable;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createSearchIndexes() {
+        String databaseProduct = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(databaseProduct)) {
+            log.info("Trigram search indexes are not supported on {}, falling back to ranked LIKE search", databaseProduct);
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            boolean valid = true;
+            for (Map.Entry<String, String> index : TRIGRAM_INDEXES.entrySet()) {
+                valid &= createIndex(index.getKey(), index.getValue());
+            }
+            trigramAvailable = valid;
+        } catch (DataAccessException e) {
+            log.warn("Could not create trigram search indexes, falling back to ranked LIKE search", e);
+        }
+    }
+
+    private boolean createIndex(String name, String definition) {
+        if (Boolean.FALSE.equals(isValid(name))) {
+            log.warn("Rebuilding invalid search index {}", name);
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        }
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " " + definition);
+        if (!Boolean.TRUE.equals(isValid(name))) {
+            log.warn("Search index {} is not valid, falling back to ranked LIKE search", name);
+            return false;
+        }
+        return true;
+    }
+
+    // null when the index doesn't exist
+    private Boolean isValid(String name) {
+        List<Boolean> valid = jdbcTemplate.queryForList(SELECT_INDEX_VALID, Boolean.class, name);
+        return valid.isEmpty() ? null : valid.get(0);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.inventory.repositories;
+
+import com.example.inventory.dto.ProductSummary;
+
+import java.util.List;
+
+public interface ProductSearchRepository {
+
+    List<ProductSummary> search(String term, int offset, int limit);
+}
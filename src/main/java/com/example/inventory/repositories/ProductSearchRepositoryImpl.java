@@ -0,0 +1,82 @@
+package com.example.inventory.repositories;
+
+import com.example.inventory.dto.ProductSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+public class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+    // Served by the pg_trgm GIN indexes on LOWER(name) / LOWER(brand), see ProductSearchIndexInitializer.
+    private static final String TRIGRAM_SEARCH = """
+            SELECT p.id, p.name, p.brand, p.price, p.quantity, p.version FROM products p
+            WHERE LOWER(p.name) LIKE :pattern OR LOWER(p.brand) LIKE :pattern
+            ORDER BY GREATEST(similarity(LOWER(p.name), :term), similarity(LOWER(p.brand), :term)) DESC, p.id
+            LIMIT :limit OFFSET :offset
+            """;
+
+    private static final String RANKED_LIKE_SEARCH = """
+            SELECT new com.example.inventory.dto.ProductSummary(p.id, p.name, p.brand, p.price, p.quantity, p.version)
+            FROM Product p
+            WHERE LOWER(p.name) LIKE :pattern OR LOWER(p.brand) LIKE :pattern
+            ORDER BY CASE
+                WHEN LOWER(p.name) = :term OR LOWER(p.brand) = :term THEN 0
+                WHEN LOWER(p.name) LIKE :prefix OR LOWER(p.brand) LIKE :prefix THEN 1
+                ELSE 2 END, p.id
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired(required = false)
+    private ProductSearchIndexInitializer searchIndex;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ProductSummary> search(String term, int offset, int limit) {
+        String normalizedTerm = term.trim().toLowerCase(Locale.ROOT);
+        if (normalizedTerm.isEmpty()) {
+            return List.of();
+        }
+        String escapedTerm = escapeLikePattern(normalizedTerm);
+
+        if (searchIndex != null && searchIndex.isTrigramAvailable()) {
+            List<Object[]> rows = entityManager.createNativeQuery(TRIGRAM_SEARCH)
+                    .setParameter("pattern", "%" + escapedTerm + "%")
+                    .setParameter("term", normalizedTerm)
+                    .setParameter("limit", limit)
+                    .setParameter("offset", offset)
+                    .getResultList();
+            return rows.stream().map(ProductSearchRepositoryImpl::toSummary).toList();
+        }
+
+        return entityManager.createQuery(RANKED_LIKE_SEARCH, ProductSummary.class)
+                .setParameter("pattern", "%" + escapedTerm + "%")
+                .setParameter("prefix", escapedTerm + "%")
+                .setParameter("term", normalizedTerm)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static ProductSummary toSummary(Object[] row) {
+        return new ProductSummary(
+                row[0] == null ? null : ((Number) row[0]).longValue(),
+                (String) row[1],
+                (String) row[2],
+                (BigDecimal) row[3],
+                row[4] == null ? null : ((Number) row[4]).intValue(),
+                row[5] == null ? null : ((Number) row[5]).longValue());
+    }
+
+    // Both PostgreSQL and H2 use backslash as the default LIKE escape character.
+    static String escapeLikePattern(String term) {
+        return term.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
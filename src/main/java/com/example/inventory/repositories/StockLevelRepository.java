@@ -0,0 +1,81 @@
+package com.example.inventory.repositories;
+
+import com.example.inventory.dto.ProductStock;
+import com.example.inventory.models.StockLevel;
+import com.example.inventory.models.StockLevelId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StockLevelRepository extends JpaRepository<StockLevel, StockLevelId> {
+
+    // What the default location has to hold for the product's locations to add up to products.quantity.
+    String DEFAULT_LOCATION_REMAINDER = "(SELECT p.quantity FROM products p WHERE p.id = s.product_id)"
+            + " - (SELECT COALESCE(SUM(o.quantity), 0) FROM stock_levels o WHERE o.product_id = s.product_id AND o.location <> s.location)";
+
+    String INSERT_DEFAULT_LOCATIONS = "INSERT INTO stock_levels (product_id, location, quantity) SELECT p.id, :location, 0 FROM products p"
+            + " WHERE NOT EXISTS (SELECT 1 FROM stock_levels s WHERE s.product_id = p.id AND s.location = :location)";
+
+    // Rows whose remainder would be negative are left alone and show up as unbalanced.
+    String SYNC_DEFAULT_LOCATIONS = "UPDATE stock_levels s SET quantity = " + DEFAULT_LOCATION_REMAINDER
+            + " WHERE s.location = :location AND " + DEFAULT_LOCATION_REMAINDER + " >= 0 AND " + DEFAULT_LOCATION_REMAINDER + " <> s.quantity";
+
+    String SELECT_UNBALANCED_PRODUCT_IDS = "SELECT p.id FROM products p"
+            + " WHERE p.quantity <> (SELECT COALESCE(SUM(s.quantity), 0) FROM stock_levels s WHERE s.product_id = p.id)";
+
+    List<StockLevel> findByProductIdOrderByLocation(Long productId);
+
+    List<StockLevel> findByLocationAndProductIdGreaterThanOrderByProductId(String location, Long productId, Pageable pageable);
+
+    @Query("SELECT new com.example.inventory.dto.ProductStock(s.productId, CAST(SUM(s.quantity) AS Integer)) FROM StockLevel s"
+            + " WHERE s.productId IN :productIds AND s.location <> :location GROUP BY s.productId")
+    List<ProductStock> findStockOutsideLocation(@Param("location") String location, @Param("productIds") Collection<Long> productIds);
+
+    // ON CONFLICT DO NOTHING is understood by PostgreSQL and by H2 in PostgreSQL mode.
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO stock_levels (product_id, location, quantity) VALUES (:productId, :location, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("productId") Long productId, @Param("location") String location);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockLevel s SET s.quantity = s.quantity + :delta WHERE s.productId = :productId AND s.location = :location AND CAST(s.quantity AS Long) + :delta BETWEEN 0 AND 2147483647")
+    int adjustQuantity(@Param("productId") Long productId, @Param("location") String location, @Param("delta") int delta);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StockLevel s WHERE s.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERT_DEFAULT_LOCATIONS + " ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertDefaultLocations(@Param("location") String location);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERT_DEFAULT_LOCATIONS + " AND p.id IN (:productIds) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertDefaultLocations(@Param("location") String location, @Param("productIds") Collection<Long> productIds);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = SYNC_DEFAULT_LOCATIONS, nativeQuery = true)
+    int syncDefaultLocations(@Param("location") String location);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = SYNC_DEFAULT_LOCATIONS + " AND s.product_id IN (:productIds)", nativeQuery = true)
+    int syncDefaultLocations(@Param("location") String location, @Param("productIds") Collection<Long> productIds);
+
+    @Query(value = SELECT_UNBALANCED_PRODUCT_IDS + " ORDER BY p.id", nativeQuery = true)
+    List<Long> findUnbalancedProductIds();
+
+    @Query(value = SELECT_UNBALANCED_PRODUCT_IDS + " AND p.id IN (:productIds) ORDER BY p.id", nativeQuery = true)
+    List<Long> findUnbalancedProductIds(@Param("productIds") Collection<Long> productIds);
+}
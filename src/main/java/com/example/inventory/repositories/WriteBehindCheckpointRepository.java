@@ -0,0 +1,7 @@
+package com.example.inventory.repositories;
+
+import com.example.inventory.models.WriteBehindCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface WriteBehindCheckpointRepository extends JpaRepository<WriteBehindCheckpoint, String> {
+}
@@ -0,0 +1,124 @@
+package com.example.inventory.services;
+
+import com.example.inventory.dto.ProductStock;
+import com.example.inventory.events.ProductChangedEvent;
+import com.example.inventory.repositories.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Opt-in quantity of every product in an OffHeapStockTable, so availability checks don't touch the
+// database or build entities. It is loaded on startup in keyset pages of (id, quantity) projections and
+// maintained from ProductChangedEvents after commit, the same way as the LowStockIndex.
+//
+// An event's listener can run after a load that already read its commit, so saves and adjustments
+// re-read the product's quantity instead of applying the event to the table. The re-read holds the lock
+// stripe of its product only, so listeners of one product apply their reads in order while writes to
+// other products don't wait for the query. Only the table write itself is serialized.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.availability.index.enabled", havingValue = "true")
+public class AvailabilityIndex {
+
+    private static final int STRIPES = 64;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${inventory.availability.index.load-page-size:10000}")
+    private int loadPageSize;
+
+    private volatile OffHeapStockTable table;
+
+    // held shared by re-reads and exclusively by loads
+    private final ReadWriteLock loadLock = new ReentrantReadWriteLock();
+
+    private final Object[] stripes = Stream.generate(Object::new).limit(STRIPES).toArray();
+
+    // Also used after bulk changes that bypass ProductChangedEvents. Writes wait while it runs, so no event
+    // is applied to a table that is about to be replaced.
+    @PostConstruct
+    public void load() {
+        loadLock.writeLock().lock();
+        try {
+            loadTable();
+        } finally {
+            loadLock.writeLock().unlock();
+        }
+    }
+
+    private void loadTable() {
+        long start = System.nanoTime();
+        OffHeapStockTable loaded = new OffHeapStockTable(productRepository.count());
+        PageRequest page = PageRequest.of(0, loadPageSize);
+        List<ProductStock> products = productRepository.findStockByIdGreaterThan(0L, page);
+        while (!products.isEmpty()) {
+            products.forEach(product -> loaded.put(product.id(), product.quantity()));
+            products = productRepository.findStockByIdGreaterThan(products.get(products.size() - 1).id(), page);
+        }
+        table = loaded;
+        log.info("Availability index loaded with {} products ({} MB off-heap) in {} ms", loaded.size(),
+                loaded.offHeapBytes() >> 20, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // OffHeapStockTable.ABSENT for unknown products.
+    public int getQuantity(long productId) {
+        return table.get(productId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            case SAVED, STOCK_ADJUSTED -> refresh(event.productId());
+            case DELETED -> delete(event.productId());
+        }
+    }
+
+    // The read happens after any running load, so the row is never older than the loaded table.
+    private void refresh(Long productId) {
+        loadLock.readLock().lock();
+        try {
+            synchronized (stripe(productId)) {
+                productRepository.findQuantityViewById(productId).ifPresentOrElse(
+                        view -> put(productId, view.getQuantity()),
+                        () -> remove(productId));
+            }
+        } finally {
+            loadLock.readLock().unlock();
+        }
+    }
+
+    private void delete(Long productId) {
+        loadLock.readLock().lock();
+        try {
+            synchronized (stripe(productId)) {
+                remove(productId);
+            }
+        } finally {
+            loadLock.readLock().unlock();
+        }
+    }
+
+    // OffHeapStockTable writers must be serialized
+    private synchronized void put(Long productId, int quantity) {
+        table.put(productId, quantity);
+    }
+
+    private synchronized void remove(Long productId) {
+        table.remove(productId);
+    }
+
+    private Object stripe(Long productId) {
+        return stripes[Math.floorMod(Long.hashCode(productId), stripes.length)];
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.inventory.services;
+
+import com.example.inventory.dto.BrandSummary;
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.events.ProductChangedEvent;
+import com.example.inventory.models.Product;
+import com.example.inventory.repositories.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-brand product count, stock, inventory value and low-stock count, loaded with one GROUP BY query
+// and kept up to date from ProductChangedEvents after commit. Saves and deletes carry the previous
+// product, so their contribution is swapped in place. Stock adjustments carry the product's quantity
+// after the change, so each one's change of stock and of the low-stock count is known exactly, whatever
+// order the listeners run in. They are summed per product and applied on the next read with one IN query
+// for the products' brand and price, so the write path never waits on the rollup.
+//
+// Changes without a previous product or quantity, or more than max-pending adjusted products between two reads,
+// mark the rollup stale and the next read reloads it. It is also reloaded once it is older than max-age,
+// which bounds any drift from events racing with a load. The GROUP BY runs outside the monitor and its
+// result is swapped in, so after-commit listeners never wait for a reload.
+@Slf4j
+@Component
+public class BrandRollup {
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${inventory.leftovers.threshold:5}")
+    private int lowStockThreshold;
+
+    @Value("${inventory.aggregates.brands.max-age:5m}")
+    private Duration maxAge;
+
+    @Value("${inventory.aggregates.brands.max-pending:10000}")
+    private int maxPending;
+
+    // guarded by this, replaced as a whole by load()
+    private Map<String, Totals> totalsByBrand = new HashMap<>();
+
+    // one reload at a time, readers that find the rollup stale wait here rather than on the monitor
+    private final Object loadLock = new Object();
+
+    private final Map<Long, StockChange> pendingStockChanges = new ConcurrentHashMap<>();
+
+    private volatile boolean stale = true;
+
+    private volatile long loadedAt;
+
+    public List<BrandSummary> getSummaries() {
+        if (needsLoad()) {
+            synchronized (loadLock) {
+                if (needsLoad()) {
+                    load();
+                }
+            }
+        }
+        synchronized (this) {
+            if (!pendingStockChanges.isEmpty()) {
+                applyPendingStockChanges();
+            }
+            return totalsByBrand.entrySet().stream()
+                    .map(entry -> entry.getValue().toSummary(entry.getKey()))
+                    .sorted(Comparator.comparing(BrandSummary::brand))
+                    .toList();
+        }
+    }
+
+    // Used after bulk changes that bypass ProductChangedEvents, such as snapshot imports.
+    public void invalidate() {
+        stale = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            case SAVED -> replace(event.productId(), event.previous(), event.product());
+            case DELETED -> replace(event.productId(), event.previous(), null);
+            case STOCK_ADJUSTED -> {
+                if (event.quantity() == null) {
+                    stale = true;
+                    return;
+                }
+                int after = event.quantity();
+                int before = after - event.quantityDelta();
+                StockChange change = new StockChange(event.quantityDelta(), lowStock(after) - lowStock(before));
+                pendingStockChanges.merge(event.productId(), change, StockChange::plus);
+                if (pendingStockChanges.size() > maxPending) {
+                    stale = true;
+                }
+            }
+        }
+    }
+
+    private synchronized void replace(Long productId, Product previous, Product product) {
+        boolean created = product != null && Long.valueOf(0L).equals(product.getVersion());
+        if (previous == null && !created) {
+            stale = true;
+            return;
+        }
+        if (previous != null) {
+            // the previous product was read after any earlier adjustment of it had committed, so pending
+            // adjustments are counted before its contribution is taken out
+            StockChange pending = pendingStockChanges.remove(productId);
+            if (pending != null) {
+                apply(previous.getBrand(), previous.getPrice(), pending);
+            }
+            add(previous.getBrand(), previous.getPrice(), previous.getQuantity(), -1);
+        }
+        if (product != null) {
+            add(product.getBrand(), product.getPrice(), product.getQuantity(), 1);
+        }
+    }
+
+    private boolean needsLoad() {
+        return stale || System.nanoTime() - loadedAt > maxAge.toNanos();
+    }
+
+    // Changes that arrive while the query runs are applied to the old totals and lost with them, or mark
+    // the rollup stale again; either way max-age bounds the drift.
+    private void load() {
+        synchronized (this) {
+            pendingStockChanges.clear();
+            stale = false;
+        }
+        List<BrandSummary> summaries = productRepository.summarizeByBrand(lowStockThreshold);
+        Map<String, Totals> loaded = new HashMap<>();
+        for (BrandSummary summary : summaries) {
+            loaded.put(summary.brand(), new Totals(summary.products(), summary.quantity(),
+                    summary.inventoryValue(), summary.lowStockProducts()));
+        }
+        synchronized (this) {
+            totalsByBrand = loaded;
+            loadedAt = System.nanoTime();
+        }
+        log.info("Brand rollup loaded with {} brands", summaries.size());
+    }
+
+    private void applyPendingStockChanges() {
+        Map<Long, StockChange> changes = new TreeMap<>();
+        for (Long productId : new ArrayList<>(pendingStockChanges.keySet())) {
+            StockChange change = pendingStockChanges.remove(productId);
+            if (change != null) {
+                changes.put(productId, change);
+            }
+        }
+        List<Long> productIds = new ArrayList<>(changes.keySet());
+        for (int from = 0; from < productIds.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, productIds.size()));
+            // products deleted in the meantime are missing here, their DELETED event settles them
+            for (ProductSummary product : productRepository.findSummariesByIdIn(chunk)) {
+                apply(product.brand(), product.price(), changes.get(product.id()));
+            }
+        }
+    }
+
+    private void apply(String brand, BigDecimal price, StockChange change) {
+        Totals totals = totalsByBrand.get(brand);
+        if (totals == null) {
+            stale = true;
+            return;
+        }
+        totals.quantity += change.quantity();
+        if (price != null) {
+            totals.inventoryValue = totals.inventoryValue.add(price.multiply(BigDecimal.valueOf(change.quantity())));
+        }
+        totals.lowStockProducts += change.lowStockProducts();
+    }
+
+    private int lowStock(int quantity) {
+        return quantity < lowStockThreshold ? 1 : 0;
+    }
+
+    private void add(String brand, BigDecimal price, Integer quantity, int sign) {
+        Totals totals = totalsByBrand.computeIfAbsent(brand, b -> new Totals(0L, 0L, BigDecimal.ZERO, 0L));
+        int units = quantity == null ? 0 : quantity;
+        totals.products += sign;
+        totals.quantity += (long) sign * units;
+        if (price != null) {
+            totals.inventoryValue = totals.inventoryValue.add(price.multiply(BigDecimal.valueOf((long) sign * units)));
+        }
+        if (units < lowStockThreshold) {
+            totals.lowStockProducts += sign;
+        }
+        if (totals.products <= 0) {
+            totalsByBrand.remove(brand);
+        }
+    }
+
+    private record StockChange(long quantity, long lowStockProducts) {
+
+        StockChange plus(StockChange other) {
+            return new StockChange(quantity + other.quantity, lowStockProducts + other.lowStockProducts);
+        }
+    }
+
+    private static class Totals {
+
+        private long products;
+
+        private long quantity;
+
+        private BigDecimal inventoryValue;
+
+        private long lowStockProducts;
+
+        Totals(Long products, Long quantity, BigDecimal inventoryValue, Long lowStockProducts) {
+            this.products = products;
+            this.quantity = quantity == null ? 0 : quantity;
+            this.inventoryValue = inventoryValue == null ? BigDecimal.ZERO : inventoryValue;
+            this.lowStockProducts = lowStockProducts == null ? 0 : lowStockProducts;
+        }
+
+        BrandSummary toSummary(String brand) {
+            return new BrandSummary(brand, products, quantity, inventoryValue, lowStockProducts);
+        }
+    }
+}
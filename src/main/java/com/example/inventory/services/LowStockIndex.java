@@ -0,0 +1,173 @@
+package com.example.inventory.services;
+
+import com.example.inventory.dto.ProductQuantityView;
+import com.example.inventory.events.ProductChangedEvent;
+import com.example.inventory.repositories.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Keeps every product whose quantity is below inventory.leftovers.index-max-threshold sorted by
+// (quantity, id), globally and per brand, so a leftovers page costs O(offset + size) instead of a
+// table scan. It is loaded once on startup and maintained from ProductChangedEvents after commit.
+//
+// After-commit listeners of concurrent transactions can run out of commit order, so an absolute quantity
+// from a save could overwrite a later adjustment and a delta could be applied to the wrong base. Saves and
+// adjustments therefore re-read the product's current brand, quantity and version. The re-read runs
+// outside the lock, so stock writes don't queue behind each other's queries, and a read is only applied
+// if its version is newer than the one the index last applied for that product.
+//
+// A reload builds a new index next to the current one and swaps it in, so leftovers pages keep being
+// served from the old index while the new one loads.
+@Slf4j
+@Component
+public class LowStockIndex {
+
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::quantity)
+            .thenComparingLong(Entry::productId);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${inventory.leftovers.index-max-threshold:100}")
+    private int maxThreshold;
+
+    // replaced as a whole by load(), changed in place under the lock otherwise
+    private volatile Index index = new Index();
+
+    private volatile boolean loaded;
+
+    // Holds the lock while loading, so changes committed meanwhile are applied to the new index once
+    // it is swapped in. The versions of products above the threshold are carried over from the old index,
+    // so a re-read that finished before the load isn't applied on top of it.
+    @PostConstruct
+    public synchronized void load() {
+        List<ProductQuantityView> products = productRepository.findQuantityViewsByQuantityLessThan(maxThreshold);
+        Index loadedIndex = new Index(index.versions);
+        products.forEach(product -> loadedIndex.put(product.getId(), product.getBrand(), product.getQuantity(),
+                product.getVersion()));
+        index = loadedIndex;
+        loaded = true;
+        log.info("Low stock index loaded with {} products below quantity {}", products.size(), maxThreshold);
+    }
+
+    // Used after bulk changes that bypass ProductChangedEvents, such as snapshot imports.
+    public void reload() {
+        load();
+    }
+
+    public boolean covers(int threshold) {
+        return loaded && threshold <= maxThreshold;
+    }
+
+    public List<Long> findProductIds(String brand, int threshold, int offset, int limit) {
+        Index current = index;
+        NavigableSet<Entry> candidates = brand == null ? current.entries : current.entriesByBrand.get(brand);
+        if (candidates == null) {
+            return List.of();
+        }
+        List<Long> productIds = new ArrayList<>(limit);
+        Iterator<Entry> iterator = candidates.headSet(new Entry(threshold, Long.MIN_VALUE, null), false).iterator();
+        for (int skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+        while (productIds.size() < limit && iterator.hasNext()) {
+            productIds.add(iterator.next().productId());
+        }
+        return productIds;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            case SAVED, STOCK_ADJUSTED -> refresh(event.productId());
+            case DELETED -> remove(event.productId());
+        }
+    }
+
+    private void refresh(Long productId) {
+        productRepository.findQuantityViewById(productId).ifPresentOrElse(this::update, () -> remove(productId));
+    }
+
+    private synchronized void update(ProductQuantityView view) {
+        if (!index.isNewer(view.getId(), view.getVersion())) {
+            return;
+        }
+        if (view.getQuantity() >= maxThreshold) {
+            index.remove(view.getId(), view.getVersion());
+        } else {
+            index.put(view.getId(), view.getBrand(), view.getQuantity(), view.getVersion());
+        }
+    }
+
+    private synchronized void remove(Long productId) {
+        index.remove(productId, DELETED);
+    }
+
+    private static final class Index {
+
+        // last applied version per product, including products above the threshold and deleted ones
+        private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+        private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(ORDER);
+
+        private final Map<String, NavigableSet<Entry>> entriesByBrand = new ConcurrentHashMap<>();
+
+        private final Map<Long, Entry> entriesByProductId = new ConcurrentHashMap<>();
+
+        private Index() {
+        }
+
+        // deletions aren't carried over, a reload after an import may bring the product back
+        private Index(Map<Long, Long> previousVersions) {
+            previousVersions.forEach((productId, version) -> {
+                if (version != DELETED) {
+                    versions.put(productId, version);
+                }
+            });
+        }
+
+        private boolean isNewer(Long productId, long version) {
+            Long applied = versions.get(productId);
+            return applied == null || version > applied;
+        }
+
+        private void put(Long productId, String brand, int quantity, long version) {
+            remove(productId, version);
+            Entry entry = new Entry(quantity, productId, brand);
+            entriesByProductId.put(productId, entry);
+            entries.add(entry);
+            entriesByBrand.computeIfAbsent(brand, b -> new ConcurrentSkipListSet<>(ORDER)).add(entry);
+        }
+
+        private void remove(Long productId, long version) {
+            versions.put(productId, version);
+            Entry entry = entriesByProductId.remove(productId);
+            if (entry == null) {
+                return;
+            }
+            entries.remove(entry);
+            entriesByBrand.computeIfPresent(entry.brand(), (brand, brandEntries) -> {
+                brandEntries.remove(entry);
+                return brandEntries.isEmpty() ? null : brandEntries;
+            });
+        }
+    }
+
+    private record Entry(int quantity, long productId, String brand) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.inventory.services;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Open-addressing product id -> quantity table in a single direct ByteBuffer: the keys take the first
+// 8 * capacity bytes and the quantities the next 4 * capacity bytes, 12 bytes per slot with linear
+// probing. Id 0 marks an empty slot and -1 a removed one; removed slots are only reclaimed by a resize.
+//
+// get() takes no lock and allocates nothing. Writers must be serialized by the caller. Quantities are
+// written before their key with release semantics and read with acquire semantics, so a reader never
+// sees a key without its quantity. A resize rehashes into a new buffer and publishes it in one volatile
+// write; readers still on the old table see its last state.
+public final class OffHeapStockTable {
+
+    public static final int ABSENT = -1;
+
+    private static final VarHandle KEYS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final VarHandle QUANTITIES = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private static final long EMPTY = 0L;
+
+    private static final long REMOVED = -1L;
+
+    private static final int SLOT_BYTES = Long.BYTES + Integer.BYTES;
+
+    // 12 bytes * 2^27 slots is the largest table a single ByteBuffer can hold
+    private static final int MAX_CAPACITY = 1 << 27;
+
+    private static final double MAX_LOAD_FACTOR = 0.7;
+
+    private volatile Table table;
+
+    // guarded by the caller, like all writes
+    private int size;
+
+    public OffHeapStockTable(long expectedSize) {
+        table = new Table(capacityFor(expectedSize));
+    }
+
+    public int get(long productId) {
+        // 0 and -1 are the empty and removed markers, never product ids
+        if (productId <= 0) {
+            return ABSENT;
+        }
+        Table current = table;
+        int mask = current.capacity - 1;
+        for (int slot = hash(productId) & mask; ; slot = (slot + 1) & mask) {
+            long key = (long) KEYS.getAcquire(current.buffer, slot * Long.BYTES);
+            if (key == productId) {
+                return (int) QUANTITIES.getAcquire(current.buffer, current.quantityOffset(slot));
+            }
+            if (key == EMPTY) {
+                return ABSENT;
+            }
+        }
+    }
+
+    public void put(long productId, int quantity) {
+        Table current = table;
+        int slot = findSlot(current, productId);
+        long key = (long) KEYS.get(current.buffer, slot * Long.BYTES);
+        QUANTITIES.setRelease(current.buffer, current.quantityOffset(slot), quantity);
+        if (key == EMPTY) {
+            KEYS.setRelease(current.buffer, slot * Long.BYTES, productId);
+            size++;
+            if (++current.usedSlots > current.capacity * MAX_LOAD_FACTOR) {
+                resize();
+            }
+        }
+    }
+
+    public void remove(long productId) {
+        Table current = table;
+        int slot = findSlot(current, productId);
+        if ((long) KEYS.get(current.buffer, slot * Long.BYTES) != EMPTY) {
+            KEYS.setRelease(current.buffer, slot * Long.BYTES, REMOVED);
+            size--;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long offHeapBytes() {
+        return (long) table.capacity * SLOT_BYTES;
+    }
+
+    // The slot holding productId, or the empty slot that ends its probe sequence.
+    private static int findSlot(Table table, long productId) {
+        if (productId == EMPTY || productId == REMOVED) {
+            throw new IllegalArgumentException("Product id " + productId + " can't be indexed");
+        }
+        int mask = table.capacity - 1;
+        for (int slot = hash(productId) & mask; ; slot = (slot + 1) & mask) {
+            long key = (long) KEYS.get(table.buffer, slot * Long.BYTES);
+            if (key == productId || key == EMPTY) {
+                return slot;
+            }
+        }
+    }
+
+    private void resize() {
+        Table current = table;
+        Table resized = new Table(capacityFor(size));
+        for (int slot = 0; slot < current.capacity; slot++) {
+            long key = (long) KEYS.get(current.buffer, slot * Long.BYTES);
+            if (key != EMPTY && key != REMOVED) {
+                int target = findSlot(resized, key);
+                QUANTITIES.set(resized.buffer, resized.quantityOffset(target),
+                        (int) QUANTITIES.get(current.buffer, current.quantityOffset(slot)));
+                KEYS.set(resized.buffer, target * Long.BYTES, key);
+                resized.usedSlots++;
+            }
+        }
+        table = resized;
+    }
+
+    private static int capacityFor(long expectedSize) {
+        long minimum = Math.max(16L, (long) Math.ceil(Math.max(expectedSize, 1L) / MAX_LOAD_FACTOR) + 1);
+        if (minimum > MAX_CAPACITY) {
+            throw new IllegalStateException("Can't index more than " + (long) (MAX_CAPACITY * MAX_LOAD_FACTOR) + " products");
+        }
+        return Integer.highestOneBit((int) minimum - 1) << 1;
+    }
+
+    private static int hash(long productId) {
+        long h = productId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Table {
+
+        private final ByteBuffer buffer;
+
+        private final int capacity;
+
+        // written by the (serialized) writers only
+        private int usedSlots;
+
+        private Table(int capacity) {
+            this.capacity = capacity;
+            this.buffer = ByteBuffer.allocateDirect(capacity * SLOT_BYTES);
+        }
+
+        private int quantityOffset(int slot) {
+            return capacity * Long.BYTES + slot * Integer.BYTES;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.inventory.services;
+
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.dto.BulkItemResult;
+import com.example.inventory.dto.ProductStock;
+import com.example.inventory.events.ProductChangedEvent;
+import com.example.inventory.exception.InsufficientStockException;
+import com.example.inventory.models.Product;
+import com.example.inventory.repositories.ProductRepository;
+import com.example.inventory.repositories.StockLevelRepository;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@Timed("inventory.service")
+public class ProductBulkService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLevelRepository stockLevelRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.products.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    // Items are validated one by one and written in chunks, each chunk in its own transaction so
+    // Hibernate can batch the inserts/updates and a failing chunk doesn't roll back the others.
+    public List<BulkItemResult> upsertProducts(Iterator<Product> products) {
+        List<BulkItemResult> results = new ArrayList<>();
+        List<PendingItem> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        try {
+            while (products.hasNext()) {
+                Product product = products.next();
+                Map<String, String> errors = validate(product);
+                if (errors.isEmpty()) {
+                    chunk.add(new PendingItem(index, product));
+                } else {
+                    results.add(result(index, BulkItemResult.Status.INVALID, product.getId(), errors));
+                }
+                index++;
+                if (chunk.size() == chunkSize) {
+                    results.addAll(writeChunk(chunk));
+                    chunk.clear();
+                }
+            }
+        } catch (RuntimeJsonMappingException e) {
+            // the parser can't resynchronise after a malformed item, so the rest of the input is dropped
+            results.add(result(index, BulkItemResult.Status.FAILED, null, Map.of("item", String.valueOf(e.getMessage()))));
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(writeChunk(chunk));
+        }
+        results.sort(Comparator.comparingInt(BulkItemResult::getIndex));
+        return results;
+    }
+
+    private List<BulkItemResult> writeChunk(List<PendingItem> chunk) {
+        List<BulkItemResult> results;
+        try {
+            results = transactionTemplate.execute(status -> upsertChunk(chunk));
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Bulk chunk of {} products failed", chunk.size(), e);
+            return failed(chunk, String.valueOf(e.getMostSpecificCause().getMessage()));
+        } catch (InsufficientStockException e) {
+            // a location was drawn down between the check in upsertChunk and the sync
+            log.warn("Bulk chunk of {} products failed, insufficient stock for products {}", chunk.size(), e.getProductIds());
+            return failed(chunk, "Insufficient stock for products " + e.getProductIds());
+        }
+
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache != null) {
+            results.stream()
+                    .filter(result -> result.getStatus() == BulkItemResult.Status.UPDATED)
+                    .forEach(result -> cache.evict(result.getId()));
+        }
+        return results;
+    }
+
+    private List<BulkItemResult> upsertChunk(List<PendingItem> chunk) {
+        Set<Long> ids = chunk.stream()
+                .map(item -> item.product().getId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Product> existingProducts = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, Integer> otherLocationStock = ids.isEmpty() ? Map.of()
+                : stockLevelRepository.findStockOutsideLocation(stockService.getDefaultLocation(), ids).stream()
+                        .collect(Collectors.toMap(ProductStock::id, ProductStock::quantity));
+
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        List<Long> changedQuantityIds = new ArrayList<>();
+        List<PendingItem> newItems = new ArrayList<>();
+        for (PendingItem item : chunk) {
+            Product product = item.product();
+            if (product.getId() == null) {
+                newItems.add(item);
+                continue;
+            }
+            Product existingProduct = existingProducts.get(product.getId());
+            if (existingProduct == null) {
+                results.add(result(item.index(), BulkItemResult.Status.NOT_FOUND, product.getId(), null));
+                continue;
+            }
+            if (product.getVersion() != null && !product.getVersion().equals(existingProduct.getVersion())) {
+                results.add(result(item.index(), BulkItemResult.Status.CONFLICT, product.getId(), null));
+                continue;
+            }
+            // the default location takes up the quantity change and can't go below zero
+            if (!product.getQuantity().equals(existingProduct.getQuantity())) {
+                if (product.getQuantity() < otherLocationStock.getOrDefault(product.getId(), 0)) {
+                    results.add(result(item.index(), BulkItemResult.Status.CONFLICT, product.getId(),
+                            Map.of("quantity", "other locations hold more than " + product.getQuantity())));
+                    continue;
+                }
+                changedQuantityIds.add(product.getId());
+            }
+            // the managed entity is updated in place, dirty checking turns it into a batched UPDATE
+            Product previous = existingProduct.toBuilder().build();
+            existingProduct.setName(product.getName());
+            existingProduct.setBrand(product.getBrand());
+            existingProduct.setPrice(product.getPrice());
+            existingProduct.setQuantity(product.getQuantity());
+            eventPublisher.publishEvent(ProductChangedEvent.saved(existingProduct, previous));
+            results.add(result(item.index(), BulkItemResult.Status.UPDATED, product.getId(), null));
+        }
+
+        // new products are persisted as-is, their ids come from the pooled product_id_seq allocation
+        productRepository.saveAll(newItems.stream().map(PendingItem::product).toList());
+        for (PendingItem item : newItems) {
+            changedQuantityIds.add(item.product().getId());
+            eventPublisher.publishEvent(ProductChangedEvent.saved(item.product()));
+            results.add(result(item.index(), BulkItemResult.Status.CREATED, item.product().getId(), null));
+        }
+
+        // flushes the chunk's batched writes first
+        List<Long> unbalancedProductIds = stockService.syncDefaultLocations(changedQuantityIds);
+        if (!unbalancedProductIds.isEmpty()) {
+            throw new InsufficientStockException(unbalancedProductIds);
+        }
+        return results;
+    }
+
+    private Map<String, String> validate(Product product) {
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        Map<String, String> errors = new TreeMap<>();
+        for (ConstraintViolation<Product> violation : violations) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private static List<BulkItemResult> failed(List<PendingItem> chunk, String error) {
+        return chunk.stream()
+                .map(item -> result(item.index(), BulkItemResult.Status.FAILED, item.product().getId(), Map.of("item", error)))
+                .toList();
+    }
+
+    private static BulkItemResult result(int index, BulkItemResult.Status status, Long id, Map<String, String> errors) {
+        return BulkItemResult.builder()
+                .index(index)
+                .status(status)
+                .id(id)
+                .errors(errors)
+                .build();
+    }
+
+    private record PendingItem(int index, Product product) {
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.inventory.services;
+
+import com.example.inventory.events.ProductChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Committed product changes go into a bounded ring of sequenced events. Producers only append and
+// signal; each subscriber is drained by a task on a fixed dispatcher pool from its last delivered
+// sequence, one batch per task, so a slow client never blocks a write and can't starve the others.
+// A client that falls further behind than the ring, or resumes with a Last-Event-ID this instance never
+// issued or already overwrote (after a restart, or from another instance), gets a "reset" event and
+// should reload its state. So does every subscriber after reset(), which skips one sequence and drops
+// the events before it.
+@Slf4j
+@Component
+public class ProductChangeFeed {
+
+    public static final String RESET_EVENT = "reset";
+
+    private static final int MAX_EVENTS_PER_READ = 256;
+
+    @Value("${inventory.feed.buffer-size:4096}")
+    private int bufferSize;
+
+    @Value("${inventory.feed.emitter-timeout:PT30M}")
+    private Duration emitterTimeout;
+
+    @Value("${inventory.feed.dispatcher-threads:4}")
+    private int dispatcherThreads;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService dispatcher;
+
+    private FeedEvent[] ring;
+
+    private long nextSequence = 1;
+
+    // events up to this sequence were dropped by reset()
+    private long resetSequence;
+
+    @PostConstruct
+    public void init() {
+        ring = new FeedEvent[bufferSize];
+        // each subscriber has at most one queued task, so the queue is bounded by the subscriber count
+        dispatcher = Executors.newFixedThreadPool(dispatcherThreads, daemonThreadFactory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        dispatcher.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        append(event);
+        subscribers.forEach(Subscriber::signal);
+    }
+
+    // For bulk changes that bypass ProductChangedEvents, such as snapshot imports.
+    public void reset() {
+        synchronized (this) {
+            resetSequence = nextSequence++;
+        }
+        subscribers.forEach(Subscriber::signal);
+    }
+
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, lastEventId == null ? lastSequence() : lastEventId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.signal();
+        return emitter;
+    }
+
+    synchronized void append(ProductChangedEvent event) {
+        ring[(int) (nextSequence % bufferSize)] = new FeedEvent(nextSequence, event);
+        nextSequence++;
+    }
+
+    synchronized long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    // Returns null when events after the given sequence have already been overwritten, or when the
+    // sequence was never issued by this feed.
+    synchronized List<FeedEvent> readAfter(long sequence, int maxEvents) {
+        long oldestSequence = Math.max(resetSequence + 1, nextSequence - bufferSize);
+        if (sequence + 1 < oldestSequence || sequence >= nextSequence) {
+            return null;
+        }
+        List<FeedEvent> events = new ArrayList<>();
+        for (long next = Math.max(sequence + 1, oldestSequence); next < nextSequence && events.size() < maxEvents; next++) {
+            events.add(ring[(int) (next % bufferSize)]);
+        }
+        return events;
+    }
+
+    private static CustomizableThreadFactory daemonThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("product-feed-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    record FeedEvent(long sequence, ProductChangedEvent event) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        // only touched by the task that won the scheduled flag
+        private long cursor;
+
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        private void signal() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // shutting down
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        // Sends one batch; the remainder is rescheduled behind the other subscribers' tasks.
+        private void drain() {
+            try {
+                List<FeedEvent> events = readAfter(cursor, MAX_EVENTS_PER_READ);
+                if (events == null) {
+                    cursor = lastSequence();
+                    emitter.send(SseEmitter.event().id(String.valueOf(cursor)).name(RESET_EVENT).data(""));
+                } else {
+                    for (FeedEvent event : events) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(event.sequence()))
+                                .name(event.event().type().name().toLowerCase(Locale.ROOT))
+                                .data(event.event(), MediaType.APPLICATION_JSON));
+                        cursor = event.sequence();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping product feed subscriber", e);
+                subscribers.remove(this);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            // the rest of a long backlog, or an event appended after the read but before the flag was cleared
+            if (cursor < lastSequence()) {
+                signal();
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.inventory.services;
+
+import com.example.inventory.models.Product;
+import com.example.inventory.repositories.ProductRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Single-id lookups that miss the cache are queued; one dispatcher thread collects them for at most max-wait
+// (or until max-batch-size ids are waiting) and resolves the whole batch with one findAllById. Batches are
+// queried on a separate pool so the next one is collected while the previous query runs. The pool has one
+// thread per database connection and a short queue; when both are full the dispatcher queries the batch
+// itself, so lookups pile up into larger batches instead of more threads. A lookup gives up after timeout,
+// which defaults to the connection timeout.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.products.batching.enabled", havingValue = "true")
+public class ProductLookupBatcher {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.products.batching.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${inventory.products.batching.max-wait:2ms}")
+    private Duration maxWait;
+
+    @Value("${inventory.products.batching.loader-threads:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int loaderThreads;
+
+    @Value("${inventory.products.batching.timeout:${spring.datasource.hikari.connection-timeout:30000}}")
+    private Duration timeout;
+
+    private final BlockingQueue<Lookup> queue = new LinkedBlockingQueue<>();
+
+    private ExecutorService dispatcher;
+
+    private ExecutorService loaders;
+
+    private DistributionSummary batchSizeSummary;
+
+    private Timer waitTimer;
+
+    @PostConstruct
+    public void start() {
+        batchSizeSummary = DistributionSummary.builder("inventory.products.lookup.batch.size")
+                .description("Product ids resolved per findAllById")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("inventory.products.lookup.batch.wait")
+                .description("Time a lookup waited for its batch to be dispatched")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        CustomizableThreadFactory dispatcherThreadFactory = new CustomizableThreadFactory("product-lookup-dispatcher-");
+        dispatcherThreadFactory.setDaemon(true);
+        dispatcher = Executors.newSingleThreadExecutor(dispatcherThreadFactory);
+        CustomizableThreadFactory loaderThreadFactory = new CustomizableThreadFactory("product-lookup-");
+        loaderThreadFactory.setDaemon(true);
+        loaders = new ThreadPoolExecutor(loaderThreads, loaderThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(loaderThreads), loaderThreadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        dispatcher.execute(this::dispatch);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        loaders.shutdown();
+    }
+
+    public Optional<Product> load(Long id) {
+        Lookup lookup = new Lookup(id, System.nanoTime(), new CompletableFuture<>());
+        queue.add(lookup);
+        try {
+            return lookup.result().get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            queue.remove(lookup);
+            throw new QueryTimeoutException("Lookup of product " + id + " timed out after " + timeout.toMillis() + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while looking up product " + id, e);
+        }
+    }
+
+    private void dispatch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Lookup> batch = new ArrayList<>(maxBatchSize);
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWait.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    Lookup next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                long dispatchedAt = System.nanoTime();
+                batch.forEach(lookup -> waitTimer.record(dispatchedAt - lookup.queuedAt(), TimeUnit.NANOSECONDS));
+                loaders.execute(() -> resolve(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.warn("Dispatching a lookup batch of {} products failed", batch.size(), e);
+                batch.forEach(lookup -> lookup.result().completeExceptionally(e));
+            }
+        }
+    }
+
+    private void resolve(List<Lookup> batch) {
+        try {
+            Set<Long> ids = new LinkedHashSet<>();
+            batch.forEach(lookup -> ids.add(lookup.id()));
+            batchSizeSummary.record(ids.size());
+            Map<Long, Product> products = new HashMap<>();
+            productRepository.findAllById(ids).forEach(product -> products.put(product.getId(), product));
+            batch.forEach(lookup -> lookup.result().complete(Optional.ofNullable(products.get(lookup.id()))));
+        } catch (RuntimeException e) {
+            log.warn("Batched lookup of {} products failed", batch.size(), e);
+            batch.forEach(lookup -> lookup.result().completeExceptionally(e));
+        }
+    }
+
+    private record Lookup(Long id, long queuedAt, CompletableFuture<Optional<Product>> result) {
+    }
+}
@@ -1,41 +1,245 @@
 package com.example.inventory.services;
 
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.dto.BrandSummary;
+import com.example.inventory.dto.PriceBucket;
+import com.example.inventory.dto.PriceBucketView;
+import com.example.inventory.dto.ProductQuantityView;
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.dto.StockAdjustment;
+import com.example.inventory.events.ProductChangedEvent;
+import com.example.inventory.exception.InsufficientStockException;
 import com.example.inventory.models.Product;
 import com.example.inventory.repositories.ProductRepository;
+import com.example.inventory.repositories.StockLevelRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed("inventory.service")
 public class ProductService {
 
     @Autowired
     private ProductRepository productRepository;
 
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    @Autowired
+    private StockLevelRepository stockLevelRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    @Autowired
+    private BrandRollup brandRollup;
+
+    @Autowired(required = false)
+    private ProductLookupBatcher productLookupBatcher;
+
+    @Value("${inventory.leftovers.threshold:5}")
+    private int leftoverThreshold;
+
+    // List reads return ProductSummary projections, the persistence context stays empty.
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getProducts(Long afterId, int size) {
+        return productRepository.findSummariesByIdGreaterThan(afterId == null ? 0L : afterId, PageRequest.of(0, size));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamProducts(Consumer<ProductSummary> consumer) {
+        try (Stream<ProductSummary> products = productRepository.streamSummaries()) {
+            products.forEach(consumer);
+        }
     }
 
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_CACHE, unless = "#result == null")
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return productLookupBatcher == null ? productRepository.findById(id) : productLookupBatcher.load(id);
     }
 
-    public List<Product> searchProducts(String query) {
-        return productRepository.findByNameContainingOrBrandContaining(query);
+    // Cached products come from the cache and the rest from one IN query; the result follows the
+    // requested order and leaves out unknown ids. findAllById reads from the primary (see ProductRepository),
+    // so a lagging replica never puts a stale product into the cache.
+    public List<Product> getProductsByIds(List<Long> ids) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        Map<Long, Product> products = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Product cached = cache == null ? null : cache.get(id, Product.class);
+            if (cached == null) {
+                missingIds.add(id);
+            } else {
+                products.put(id, cached);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            for (Product product : productRepository.findAllById(missingIds)) {
+                products.put(product.getId(), product);
+                if (cache != null) {
+                    cache.put(product.getId(), product);
+                }
+            }
+        }
+        return ids.stream().distinct().map(products::get).filter(Objects::nonNull).toList();
     }
 
+    // Checkout reads this through the AvailabilityIndex when it is enabled; without it a two-column projection
+    // is read instead of the entity. Returns OffHeapStockTable.ABSENT for unknown products.
+    public int getAvailableQuantity(long id) {
+        return productRepository.findQuantityViewById(id)
+                .map(ProductQuantityView::getQuantity)
+                .orElse(OffHeapStockTable.ABSENT);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductSummary> searchProducts(String query, int page, int size) {
+        if (beyondLastRow(page, size)) {
+            return List.of();
+        }
+        return productRepository.search(query, page * size, size);
+    }
+
+    // An update loads the current row into the persistence context first, so the event can carry the
+    // previous state and the merge in save() doesn't have to query again. A new quantity is moved into
+    // the default location; 409 when the product's other locations already hold more than that.
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#result.id")
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product previous = product.getId() == null ? null : productRepository.findById(product.getId())
+                .map(existing -> existing.toBuilder().build())
+                .orElse(null);
+        Product savedProduct = productRepository.save(product);
+        if (previous == null || !Objects.equals(previous.getQuantity(), savedProduct.getQuantity())) {
+            List<Long> unbalancedProductIds = stockService.syncDefaultLocations(List.of(savedProduct.getId()));
+            if (!unbalancedProductIds.isEmpty()) {
+                throw new InsufficientStockException(unbalancedProductIds);
+            }
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct, previous));
+        return savedProduct;
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
     public void deleteProduct(Long id) {
+        Product previous = productRepository.findById(id).orElse(null);
+        stockLevelRepository.deleteByProductId(id);
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id, previous));
+    }
+
+    // Conditional UPDATEs of the product total and its default location, so concurrent reservations
+    // never oversell and no row is read first.
+    public void adjustStock(Long id, int delta) {
+        stockService.adjustStock(id, stockService.getDefaultLocation(), delta);
+    }
+
+    // All-or-nothing: rows are updated in id order to keep lock acquisition consistent across
+    // concurrent batches, and any rejected adjustment rolls the whole batch back.
+    @Transactional
+    public void adjustStock(List<StockAdjustment> adjustments) {
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (StockAdjustment adjustment : adjustments) {
+            deltas.merge(adjustment.getProductId(), adjustment.getDelta(), Integer::sum);
+        }
+
+        String location = stockService.getDefaultLocation();
+        List<Long> rejectedProductIds = new ArrayList<>();
+        deltas.forEach((id, delta) -> {
+            if (!stockService.apply(id, location, delta)) {
+                rejectedProductIds.add(id);
+            }
+        });
+        if (!rejectedProductIds.isEmpty()) {
+            throw new InsufficientStockException(rejectedProductIds);
+        }
+
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache != null) {
+            deltas.keySet().forEach(cache::evict);
+        }
+    }
+
+    public List<BrandSummary> getBrandSummaries() {
+        return brandRollup.getSummaries();
+    }
+
+    @Transactional(readOnly = true)
+    public List<PriceBucket> getPriceBuckets(BigDecimal width, String brand) {
+        List<PriceBucketView> buckets = brand == null
+                ? productRepository.findPriceBuckets(width)
+                : productRepository.findPriceBucketsByBrand(width, brand);
+        return buckets.stream()
+                .map(bucket -> {
+                    BigDecimal minPrice = width.multiply(BigDecimal.valueOf(bucket.getBucket()));
+                    return new PriceBucket(minPrice, minPrice.add(width), bucket.getProducts(), bucket.getQuantity());
+                })
+                .toList();
+    }
+
+    // Thresholds up to inventory.leftovers.index-max-threshold are answered from the LowStockIndex,
+    // higher ones fall back to a paged query.
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getLeftoverProducts(Integer threshold, String brand, int page, int size) {
+        if (beyondLastRow(page, size)) {
+            return List.of();
+        }
+        int quantityThreshold = threshold == null ? leftoverThreshold : threshold;
+        if (!lowStockIndex.covers(quantityThreshold)) {
+            PageRequest pageRequest = PageRequest.of(page, size, Sort.by("quantity", "id"));
+            return brand == null
+                    ? productRepository.findSummariesByQuantityLessThan(quantityThreshold, pageRequest)
+                    : productRepository.findSummariesByBrandAndQuantityLessThan(brand, quantityThreshold, pageRequest);
+        }
+
+        List<Long> productIds = lowStockIndex.findProductIds(brand, quantityThreshold, page * size, size);
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductSummary> products = productRepository.findSummariesByIdIn(productIds).stream()
+                .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+        // keep the index order and drop anything that changed since the ids were read
+        return productIds.stream()
+                .map(products::get)
+                .filter(product -> product != null && product.quantity() < quantityThreshold)
+                .toList();
     }
 
-    public List<Product> getLeftoverProducts() {
-        int LEFTOVER_PRODUCT_QUANTITY_THRESHOLD = 5;
-        return productRepository.findByQuantityLessThan(LEFTOVER_PRODUCT_QUANTITY_THRESHOLD);
+    // No page starts past Integer.MAX_VALUE rows, such pages are answered without a query instead of
+    // letting page * size overflow into a negative offset.
+    static boolean beyondLastRow(int page, int size) {
+        return (long) page * size > Integer.MAX_VALUE;
     }
 }
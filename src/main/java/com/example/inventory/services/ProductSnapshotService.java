@@ -0,0 +1,486 @@
+package com.example.inventory.services;
+
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.dto.SnapshotSummary;
+import com.example.inventory.dto.SnapshotVerification;
+import com.example.inventory.exception.InsufficientStockException;
+import com.example.inventory.exception.SnapshotNotFoundException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// Exports the products table to a CSV file and loads such files back, without holding the rows in
+// memory. On PostgreSQL both directions go through COPY on the transaction's connection; on other
+// databases the export reads through a forward-only cursor and the import writes JDBC batches.
+//
+// The export runs in a read-only repeatable-read transaction, so the file is a consistent snapshot,
+// takes no row locks, and is served by a replica when read/write routing is enabled. The import
+// upserts by id in chunks of chunk-size rows, one transaction each, so it only holds the locks of one
+// chunk at a time. Each chunk moves product_id_seq past the highest imported id and moves its quantities
+// into the default locations; a chunk whose products' other locations hold more is rolled back with 409,
+// the chunks before it stay imported. A committed chunk's products are evicted from the cache. Once the
+// import ends, even with an error, the in-memory indexes are refreshed and feed subscribers are reset.
+@Slf4j
+@Service
+@Timed("inventory.service")
+public class ProductSnapshotService {
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9_-]+\\.csv");
+
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS'Z'").withZone(ZoneOffset.UTC);
+
+    private static final String[] COLUMNS = {"id", "name", "brand", "price", "quantity", "version"};
+
+    private static final String SELECT_PRODUCTS =
+            "SELECT id, name, brand, price, quantity, version FROM products ORDER BY id";
+
+    private static final String COPY_OUT =
+            "COPY (" + SELECT_PRODUCTS + ") TO STDOUT WITH (FORMAT csv, HEADER true)";
+
+    private static final String CREATE_IMPORT_TABLE =
+            "CREATE TEMP TABLE products_import (LIKE products INCLUDING DEFAULTS) ON COMMIT DROP";
+
+    private static final String COPY_IN =
+            "COPY products_import (id, name, brand, price, quantity, version) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_IMPORT_TABLE = """
+            INSERT INTO products (id, name, brand, price, quantity, version)
+            SELECT id, name, brand, price, quantity, COALESCE(version, 0) FROM products_import
+            ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, brand = EXCLUDED.brand, price = EXCLUDED.price,
+                quantity = EXCLUDED.quantity, version = products.version + 1""";
+
+    private static final String UPDATE_PRODUCT =
+            "UPDATE products SET name = ?, brand = ?, price = ?, quantity = ?, version = version + 1 WHERE id = ?";
+
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO products (id, name, brand, price, quantity, version) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // must match the allocationSize of Product's product_id_seq generator
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    private static final long MAPPING_WINDOW = 1L << 28;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    @Autowired
+    private BrandRollup brandRollup;
+
+    @Autowired(required = false)
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+
+    @Value("${inventory.snapshots.directory:${java.io.tmpdir}/inventory-snapshots}")
+    private Path directory;
+
+    @Value("${inventory.snapshots.fetch-size:10000}")
+    private int fetchSize;
+
+    @Value("${inventory.snapshots.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${inventory.snapshots.chunk-size:10000}")
+    private int chunkSize;
+
+    private TransactionTemplate exportTransaction;
+
+    private TransactionTemplate importTransaction;
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(directory);
+        exportTransaction = new TransactionTemplate(transactionManager);
+        exportTransaction.setReadOnly(true);
+        exportTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        importTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // Written to a .partial file first, so a listed snapshot is always complete.
+    public SnapshotSummary export() {
+        long start = System.nanoTime();
+        String name = "products-" + TIMESTAMP.format(Instant.now()) + ".csv";
+        Path file = directory.resolve(name);
+        Path partialFile = directory.resolve(name + ".partial");
+        try {
+            long rows;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partialFile), IO_BUFFER_SIZE)) {
+                rows = exportTransaction.execute(status -> jdbcTemplate.execute(
+                        (ConnectionCallback<Long>) connection -> copyOut(connection, out)));
+            }
+            Files.move(partialFile, file, StandardCopyOption.ATOMIC_MOVE);
+            SnapshotSummary summary = new SnapshotSummary(name, rows, Files.size(file), elapsedMillis(start));
+            log.info("Exported {} products to {} in {} ms", rows, file, summary.durationMillis());
+            return summary;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(partialFile);
+        }
+    }
+
+    public Path resolve(String name) {
+        Path file = NAME_PATTERN.matcher(name).matches() ? directory.resolve(name) : null;
+        if (file == null || !Files.isRegularFile(file)) {
+            throw new SnapshotNotFoundException(name);
+        }
+        return file;
+    }
+
+    public SnapshotSummary importSnapshot(String name) {
+        long start = System.nanoTime();
+        Path file = resolve(name);
+        long rows = 0;
+        try (Reader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8),
+                IO_BUFFER_SIZE)) {
+            SnapshotCsv.readRow(reader);
+            List<List<String>> chunk = new ArrayList<>(chunkSize);
+            for (List<String> row = SnapshotCsv.readRow(reader); row != null; row = SnapshotCsv.readRow(reader)) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    rows += importChunk(chunk);
+                    chunk.clear();
+                }
+            }
+            rows += importChunk(chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // the imported rows bypassed ProductChangedEvents
+            lowStockIndex.reload();
+            brandRollup.invalidate();
+            if (availabilityIndex != null) {
+                availabilityIndex.load();
+            }
+            productChangeFeed.reset();
+        }
+        SnapshotSummary summary = new SnapshotSummary(name, rows, fileSize(file), elapsedMillis(start));
+        log.info("Imported {} products from {} in {} ms", rows, file, summary.durationMillis());
+        return summary;
+    }
+
+    // Scans the file through read-only memory mappings, one window at a time, so neither the heap nor
+    // the database is involved. Ids are expected in ascending order, as both export paths write them.
+    public SnapshotVerification verify(String name) {
+        Path file = resolve(name);
+        CRC32 crc = new CRC32();
+        SnapshotScanner scanner = new SnapshotScanner();
+        long size;
+        try (FileChannel channel = FileChannel.open(file)) {
+            size = channel.size();
+            for (long position = 0; position < size; position += MAPPING_WINDOW) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAPPING_WINDOW, size - position));
+                crc.update(window.duplicate());
+                scanner.scan(window);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        scanner.finish();
+        return new SnapshotVerification(name, scanner.rows, size, scanner.rows == 0 ? 0 : scanner.minId,
+                scanner.maxId, scanner.totalQuantity, scanner.ordered, Long.toHexString(crc.getValue()));
+    }
+
+    private long copyOut(Connection connection, OutputStream out) throws SQLException {
+        try {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(COPY_OUT, out);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_PRODUCTS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                    SnapshotCsv.writeRow(writer, (Object[]) COLUMNS);
+                    long rows = 0;
+                    Object[] values = new Object[COLUMNS.length];
+                    while (resultSet.next()) {
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = resultSet.getObject(i + 1);
+                        }
+                        SnapshotCsv.writeRow(writer, values);
+                        rows++;
+                    }
+                    writer.flush();
+                    return rows;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int importChunk(List<List<String>> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        List<Long> productIds = chunk.stream().map(row -> Long.parseLong(row.get(0))).toList();
+        importTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try {
+                    copyIn(connection, chunk);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                advanceIdSequence(connection);
+                return null;
+            });
+            // imported quantities land in the default location, like any other product-level write
+            List<Long> unbalancedProductIds = stockService.syncDefaultLocations(productIds);
+            if (!unbalancedProductIds.isEmpty()) {
+                throw new InsufficientStockException(unbalancedProductIds);
+            }
+        });
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache != null) {
+            productIds.forEach(cache::evict);
+        }
+        return chunk.size();
+    }
+
+    // PostgreSQL gets the chunk through COPY into a temporary table, written back as CSV in memory.
+    private void copyIn(Connection connection, List<List<String>> chunk) throws SQLException, IOException {
+        if (connection.isWrapperFor(PGConnection.class)) {
+            ByteArrayOutputStream csv = new ByteArrayOutputStream();
+            try (Writer writer = new OutputStreamWriter(csv, StandardCharsets.UTF_8)) {
+                for (List<String> row : chunk) {
+                    SnapshotCsv.writeRow(writer, row.toArray());
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_IMPORT_TABLE);
+                connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(COPY_IN, new ByteArrayInputStream(csv.toByteArray()), IO_BUFFER_SIZE);
+                statement.executeUpdate(MERGE_IMPORT_TABLE);
+            }
+            return;
+        }
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_PRODUCT);
+             PreparedStatement insert = connection.prepareStatement(INSERT_PRODUCT)) {
+            for (int from = 0; from < chunk.size(); from += batchSize) {
+                upsertBatch(update, insert, chunk.subList(from, Math.min(from + batchSize, chunk.size())));
+            }
+        }
+    }
+
+    // Updates the whole batch first and inserts the rows whose update matched nothing.
+    private int upsertBatch(PreparedStatement update, PreparedStatement insert, List<List<String>> batch)
+            throws SQLException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        for (List<String> row : batch) {
+            update.setString(1, row.get(1));
+            update.setString(2, row.get(2));
+            update.setBigDecimal(3, new BigDecimal(row.get(3)));
+            update.setInt(4, Integer.parseInt(row.get(4)));
+            update.setLong(5, Long.parseLong(row.get(0)));
+            update.addBatch();
+        }
+        int[] updated = update.executeBatch();
+        boolean inserts = false;
+        for (int i = 0; i < batch.size(); i++) {
+            if (updated[i] == 0) {
+                List<String> row = batch.get(i);
+                insert.setLong(1, Long.parseLong(row.get(0)));
+                insert.setString(2, row.get(1));
+                insert.setString(3, row.get(2));
+                insert.setBigDecimal(4, new BigDecimal(row.get(3)));
+                insert.setInt(5, Integer.parseInt(row.get(4)));
+                insert.setLong(6, row.get(5) == null ? 0 : Long.parseLong(row.get(5)));
+                insert.addBatch();
+                inserts = true;
+            }
+        }
+        if (inserts) {
+            insert.executeBatch();
+        }
+        return batch.size();
+    }
+
+    // Hibernate's pooled optimizer hands out the ids (value - allocationSize, value] for every sequence
+    // value, so the next value has to be at least max(id) + allocationSize. Blocks that running instances
+    // already fetched stay in their memory: an imported id inside such a block can be handed out again and
+    // fail that insert with a duplicate key until the instances are restarted.
+    private void advanceIdSequence(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            long maxId = queryLong(statement, "SELECT COALESCE(MAX(id), 0) FROM products");
+            long next = queryLong(statement, "SELECT nextval('product_id_seq')");
+            if (next - ID_ALLOCATION_SIZE < maxId) {
+                statement.execute("ALTER SEQUENCE product_id_seq RESTART WITH " + (maxId + ID_ALLOCATION_SIZE));
+            }
+        }
+    }
+
+    private static long queryLong(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    // Byte-level state machine over the CSV, carried across mapping windows. Only the id (first) and
+    // quantity (fifth) columns are parsed, quoted text is skipped without decoding.
+    private static class SnapshotScanner {
+
+        private static final int ID_COLUMN = 0;
+
+        private static final int QUANTITY_COLUMN = 4;
+
+        private boolean header = true;
+
+        private boolean inQuotes;
+
+        private boolean rowStarted;
+
+        private int column;
+
+        private long value;
+
+        private long id;
+
+        private long quantity;
+
+        private long rows;
+
+        private long minId = Long.MAX_VALUE;
+
+        private long maxId;
+
+        private long previousId = Long.MIN_VALUE;
+
+        private long totalQuantity;
+
+        private boolean ordered = true;
+
+        void scan(MappedByteBuffer window) {
+            for (int i = 0, limit = window.limit(); i < limit; i++) {
+                byte b = window.get(i);
+                rowStarted = true;
+                if (inQuotes) {
+                    inQuotes = b != '"';
+                } else if (b == '"') {
+                    inQuotes = true;
+                } else if (b == ',') {
+                    endField();
+                    column++;
+                } else if (b == '\n') {
+                    endField();
+                    endRow();
+                } else if (b >= '0' && b <= '9' && (column == ID_COLUMN || column == QUANTITY_COLUMN)) {
+                    value = value * 10 + (b - '0');
+                }
+            }
+        }
+
+        void finish() {
+            if (rowStarted) {
+                endField();
+                endRow();
+            }
+        }
+
+        private void endField() {
+            if (column == ID_COLUMN) {
+                id = value;
+            } else if (column == QUANTITY_COLUMN) {
+                quantity = value;
+            }
+            value = 0;
+        }
+
+        private void endRow() {
+            if (header) {
+                header = false;
+            } else {
+                rows++;
+                minId = Math.min(minId, id);
+                maxId = Math.max(maxId, id);
+                ordered &= id > previousId;
+                previousId = id;
+                totalQuantity += quantity;
+            }
+            column = 0;
+            rowStarted = false;
+        }
+    }
+}
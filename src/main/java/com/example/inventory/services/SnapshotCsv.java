@@ -0,0 +1,94 @@
+package com.example.inventory.services;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// The subset of PostgreSQL's COPY ... (FORMAT csv) used for snapshots: fields are quoted only when they
+// contain a comma, quote or line break (or are empty strings), quotes are doubled, and an unquoted
+// empty field is NULL. Files written here and by COPY can be read by either side.
+final class SnapshotCsv {
+
+    private SnapshotCsv() {
+    }
+
+    static void writeRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values[i];
+            if (value instanceof String string) {
+                writeString(writer, string);
+            } else if (value instanceof BigDecimal decimal) {
+                writer.write(decimal.toPlainString());
+            } else if (value != null) {
+                writer.write(value.toString());
+            }
+        }
+        writer.write('\n');
+    }
+
+    // Returns null at the end of the input. Expects a buffered reader, it reads one char at a time.
+    static List<String> readRow(Reader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        while (true) {
+            if (inQuotes) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next != '"') {
+                        inQuotes = false;
+                        c = next;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"') {
+                inQuotes = true;
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(value(field, quoted));
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\n' || c == -1) {
+                fields.add(value(field, quoted));
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    private static void writeString(Writer writer, String value) throws IOException {
+        boolean needsQuotes = value.isEmpty();
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String value(StringBuilder field, boolean quoted) {
+        return field.isEmpty() && !quoted ? null : field.toString();
+    }
+}
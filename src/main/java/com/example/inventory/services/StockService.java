@@ -0,0 +1,126 @@
+package com.example.inventory.services;
+
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.events.ProductChangedEvent;
+import com.example.inventory.exception.InsufficientStockException;
+import com.example.inventory.exception.ProductNotFoundException;
+import com.example.inventory.models.StockLevel;
+import com.example.inventory.repositories.ProductRepository;
+import com.example.inventory.repositories.StockLevelRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Slf4j
+@Service
+@Timed("inventory.service")
+public class StockService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLevelRepository stockLevelRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.stock.default-location:default}")
+    private String defaultLocation;
+
+    // Product-level writes (PUT, bulk upserts, the product stock endpoints, the write-behind buffer and
+    // snapshot imports) all go through the default location, so Product.quantity is always the sum of the
+    // product's stock_levels rows.
+    public String getDefaultLocation() {
+        return defaultLocation;
+    }
+
+    // Products written before locations existed, or while the default location was named differently,
+    // get their default location row on startup.
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void initDefaultLocations() {
+        List<Long> unbalancedProductIds = syncDefaultLocations();
+        if (!unbalancedProductIds.isEmpty()) {
+            log.warn("{} products hold less than their other locations and were left unbalanced: {}",
+                    unbalancedProductIds.size(), unbalancedProductIds.subList(0, Math.min(unbalancedProductIds.size(), 20)));
+        }
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#productId")
+    public void adjustStock(Long productId, String location, int delta) {
+        if (!apply(productId, location, delta)) {
+            if (!productRepository.existsById(productId)) {
+                throw new ProductNotFoundException(productId);
+            }
+            throw new InsufficientStockException(List.of(productId));
+        }
+    }
+
+    // The product total and then the location row are changed with conditional UPDATEs, so every stock
+    // write locks the product row before a location row and Product.quantity stays the sum of what was
+    // added and removed without re-reading the locations. When the location can't cover a decrease the
+    // total is put back, leaving both rows as they were without rolling back the caller's transaction.
+    // An applied change publishes a STOCK_ADJUSTED event with the new total, read while this transaction
+    // still holds the product row. Must run inside a transaction.
+    boolean apply(Long productId, String location, int delta) {
+        if (productRepository.adjustQuantity(productId, delta) == 0) {
+            return false;
+        }
+        if (delta >= 0) {
+            stockLevelRepository.insertIfAbsent(productId, location);
+        }
+        if (stockLevelRepository.adjustQuantity(productId, location, delta) == 0) {
+            productRepository.adjustQuantity(productId, -delta);
+            return false;
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.stockAdjusted(productId, delta,
+                productRepository.findQuantityById(productId)));
+        return true;
+    }
+
+    // For writes that set Product.quantity directly: the default location takes up the difference to the
+    // product's other locations. Returns the products whose other locations hold more than the new total,
+    // their default location is left unchanged. Must run inside a transaction.
+    List<Long> syncDefaultLocations(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        stockLevelRepository.insertDefaultLocations(defaultLocation, productIds);
+        stockLevelRepository.syncDefaultLocations(defaultLocation, productIds);
+        return stockLevelRepository.findUnbalancedProductIds(productIds);
+    }
+
+    List<Long> syncDefaultLocations() {
+        stockLevelRepository.insertDefaultLocations(defaultLocation);
+        stockLevelRepository.syncDefaultLocations(defaultLocation);
+        return stockLevelRepository.findUnbalancedProductIds();
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockLevel> getStockLevels(Long productId) {
+        List<StockLevel> stockLevels = stockLevelRepository.findByProductIdOrderByLocation(productId);
+        if (stockLevels.isEmpty() && !productRepository.existsById(productId)) {
+            throw new ProductNotFoundException(productId);
+        }
+        return stockLevels;
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockLevel> getLocationStock(String location, Long afterProductId, int size) {
+        return stockLevelRepository.findByLocationAndProductIdGreaterThanOrderByProductId(
+                location, afterProductId == null ? 0L : afterProductId, PageRequest.of(0, size));
+    }
+}
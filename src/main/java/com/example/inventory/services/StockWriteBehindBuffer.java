@@ -0,0 +1,581 @@
+package com.example.inventory.services;
+
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.dto.StockAdjustment;
+import com.example.inventory.dto.StockSubmission;
+import com.example.inventory.models.WriteBehindCheckpoint;
+import com.example.inventory.repositories.WriteBehindCheckpointRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Opt-in write-behind path for bursts of stock deltas on a few hot products. Deltas are queued per product
+// in lock-striped maps and written by a single flusher thread, one transaction per flush, on a fixed
+// interval or once flush-size deltas are waiting. A product's deltas are applied as one net update when
+// its stock covers them, otherwise restocks first and then reservations one by one in submission order,
+// so only the reservations the stock can't cover are dropped. Every submit() is tracked until its deltas
+// are applied or dropped and can be looked up by id for submission-retention.
+//
+// A flush that fails with a transient database error is retried whole with the next flush. Any other
+// failure is retried one product per transaction and the products that still fail are dropped, so a
+// single bad delta can't hold back the rest of the queue.
+//
+// With durability LOG or LOG_FSYNC every delta is also appended to the current log segment before it is
+// accepted. A flush rolls to a new segment while holding all stripe locks, so a segment holds exactly the
+// deltas of one flush, and records the segment number in write_behind_checkpoints in the same
+// transaction. On startup segments above the checkpoint are replayed. The checkpoint row is keyed by
+// node-id; without one a random id is generated and kept in the log directory, so two instances never
+// share a checkpoint unless they share a log directory.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.stock.write-behind.enabled", havingValue = "true")
+public class StockWriteBehindBuffer {
+
+    public enum Durability {
+        MEMORY, LOG, LOG_FSYNC
+    }
+
+    private static final int RECORD_SIZE = Long.BYTES + Integer.BYTES;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private WriteBehindCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.stock.write-behind.stripes:16}")
+    private int stripeCount;
+
+    @Value("${inventory.stock.write-behind.flush-interval:200ms}")
+    private Duration flushInterval;
+
+    @Value("${inventory.stock.write-behind.flush-size:10000}")
+    private int flushSize;
+
+    @Value("${inventory.stock.write-behind.durability:MEMORY}")
+    private Durability durability;
+
+    @Value("${inventory.stock.write-behind.log-directory:${java.io.tmpdir}/inventory-write-behind}")
+    private Path logDirectory;
+
+    @Value("${inventory.stock.write-behind.node-id:}")
+    private String nodeId;
+
+    @Value("${inventory.stock.write-behind.submission-retention:10m}")
+    private Duration submissionRetention;
+
+    @Value("${inventory.stock.write-behind.max-submissions:100000}")
+    private long maxSubmissions;
+
+    private Map<String, Submission> submissions;
+
+    private final AtomicInteger pendingDeltas = new AtomicInteger();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private Stripe[] stripes;
+
+    private ScheduledExecutorService flusher;
+
+    // guarded by all stripe locks
+    private long segment;
+
+    private FileChannel segmentChannel;
+
+    private Counter submittedCounter;
+
+    private Counter flushedCounter;
+
+    private Counter rejectedCounter;
+
+    private Timer flushTimer;
+
+    private DistributionSummary coalescingSummary;
+
+    @PostConstruct
+    public void start() throws IOException {
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        submissions = Caffeine.newBuilder()
+                .expireAfterWrite(submissionRetention)
+                .maximumSize(maxSubmissions)
+                .<String, Submission>build()
+                .asMap();
+        Gauge.builder("inventory.stock.writebehind.pending", pendingDeltas, AtomicInteger::get)
+                .description("Stock deltas accepted but not yet flushed")
+                .register(meterRegistry);
+        submittedCounter = meterRegistry.counter("inventory.stock.writebehind.deltas");
+        flushedCounter = meterRegistry.counter("inventory.stock.writebehind.rows");
+        rejectedCounter = meterRegistry.counter("inventory.stock.writebehind.rejected");
+        flushTimer = Timer.builder("inventory.stock.writebehind.flush")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        coalescingSummary = DistributionSummary.builder("inventory.stock.writebehind.coalescing")
+                .description("Deltas merged into each row update")
+                .register(meterRegistry);
+
+        if (durability != Durability.MEMORY) {
+            Files.createDirectories(logDirectory);
+            nodeId = resolveNodeId();
+            recover();
+            segmentChannel = openSegment(++segment);
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("stock-write-behind-");
+        threadFactory.setDaemon(true);
+        flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+        if (segmentChannel != null) {
+            segmentChannel.close();
+        }
+    }
+
+    public StockSubmission submit(List<StockAdjustment> adjustments) {
+        Submission submission = new Submission(UUID.randomUUID().toString(), adjustments.size());
+        submissions.put(submission.id, submission);
+        for (StockAdjustment adjustment : adjustments) {
+            submit(adjustment.getProductId(), new Delta(adjustment.getDelta(), submission));
+        }
+        return submission.toStatus();
+    }
+
+    public Optional<StockSubmission> getSubmission(String id) {
+        return Optional.ofNullable(submissions.get(id)).map(Submission::toStatus);
+    }
+
+    private void submit(Long productId, Delta delta) {
+        Stripe stripe = stripes[Math.floorMod(productId.hashCode(), stripes.length)];
+        stripe.lock.lock();
+        try {
+            // logged under the stripe lock so the record lands in the segment that is flushed with it
+            if (segmentChannel != null) {
+                append(productId, delta.delta());
+            }
+            stripe.deltas.computeIfAbsent(productId, id -> new ArrayList<>()).add(delta);
+        } finally {
+            stripe.lock.unlock();
+        }
+        submittedCounter.increment();
+        if (pendingDeltas.incrementAndGet() >= flushSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    public synchronized void flush() {
+        flushRequested.set(false);
+        Map<Long, List<Delta>> deltas = new TreeMap<>();
+        long flushedSegment;
+        lockAll();
+        try {
+            for (Stripe stripe : stripes) {
+                deltas.putAll(stripe.deltas);
+                stripe.deltas.clear();
+            }
+            pendingDeltas.addAndGet(-countDeltas(deltas));
+            flushedSegment = segment;
+            if (!deltas.isEmpty() && segmentChannel != null) {
+                segmentChannel.close();
+                segmentChannel = openSegment(++segment);
+            }
+        } catch (IOException e) {
+            requeue(deltas);
+            throw new UncheckedIOException(e);
+        } finally {
+            unlockAll();
+        }
+        if (!deltas.isEmpty()) {
+            write(deltas, flushedSegment);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Stock write-behind flush failed", e);
+        }
+    }
+
+    // Deltas put back for the next flush are still in their segment until a later flush commits, so the
+    // segments are only deleted on success.
+    private void write(Map<Long, List<Delta>> deltas, long flushedSegment) {
+        List<ProductOutcome> outcomes;
+        try {
+            outcomes = flushTimer.record(() -> transactionTemplate.execute(status -> {
+                List<ProductOutcome> applied = new ArrayList<>(deltas.size());
+                deltas.forEach((productId, productDeltas) -> applied.add(apply(productId, productDeltas)));
+                checkpoint(flushedSegment);
+                return applied;
+            }));
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                log.warn("Stock write-behind flush of {} products failed, retrying with the next flush", deltas.size(), e);
+                requeue(deltas);
+                return;
+            }
+            log.warn("Stock write-behind flush of {} products failed, applying them one by one", deltas.size(), e);
+            outcomes = new ArrayList<>(deltas.size());
+            if (!applyEach(deltas, flushedSegment, outcomes)) {
+                return;
+            }
+        }
+        outcomes.forEach(this::report);
+        coalescingSummary.record((double) countDeltas(deltas) / deltas.size());
+        deleteSegmentsUpTo(flushedSegment);
+    }
+
+    // One transaction per product, so a product whose deltas fail again is dropped without its neighbours.
+    // A crash before the final checkpoint replays the products already committed here; this path only runs
+    // after a flush failed with a non-transient error, which the conditional updates don't raise.
+    private boolean applyEach(Map<Long, List<Delta>> deltas, long flushedSegment, List<ProductOutcome> outcomes) {
+        List<Long> productIds = new ArrayList<>(deltas.keySet());
+        for (int i = 0; i < productIds.size(); i++) {
+            Long productId = productIds.get(i);
+            try {
+                outcomes.add(transactionTemplate.execute(status -> apply(productId, deltas.get(productId))));
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    log.warn("Stock write-behind flush failed, retrying {} products with the next flush", productIds.size() - i, e);
+                    outcomes.forEach(this::report);
+                    Map<Long, List<Delta>> remaining = new TreeMap<>(deltas);
+                    remaining.keySet().retainAll(productIds.subList(i, productIds.size()));
+                    requeue(remaining);
+                    return false;
+                }
+                log.error("Dropping {} stock deltas for product {}", deltas.get(productId).size(), productId, e);
+                outcomes.add(ProductOutcome.rejected(productId, deltas.get(productId)));
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> checkpoint(flushedSegment));
+        return true;
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private void checkpoint(long flushedSegment) {
+        if (flushedSegment > 0) {
+            checkpointRepository.save(new WriteBehindCheckpoint(nodeId, flushedSegment));
+        }
+    }
+
+    // Products are applied in ascending id order, like the synchronous batch adjustments, so flushes can't
+    // deadlock with them. Each update goes through StockService like any product-level adjustment, so the
+    // default location absorbs it. When the net update is refused, taking restocks before reservations
+    // never drops a reservation that applying the deltas in submission order would have kept.
+    private ProductOutcome apply(Long productId, List<Delta> deltas) {
+        ProductOutcome outcome = new ProductOutcome(productId);
+        if (!applySum(productId, deltas, outcome)) {
+            if (deltas.size() == 1) {
+                outcome.rejected.addAll(deltas);
+            } else {
+                applyGroup(productId, deltas.stream().filter(delta -> delta.delta() >= 0).toList(), outcome);
+                applyGroup(productId, deltas.stream().filter(delta -> delta.delta() < 0).toList(), outcome);
+            }
+        }
+        if (outcome.rows > 0) {
+            Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+            if (cache != null) {
+                cache.evict(productId);
+            }
+        }
+        return outcome;
+    }
+
+    private void applyGroup(Long productId, List<Delta> deltas, ProductOutcome outcome) {
+        if (deltas.size() > 1 && applySum(productId, deltas, outcome)) {
+            return;
+        }
+        for (Delta delta : deltas) {
+            if (!applySum(productId, List.of(delta), outcome)) {
+                outcome.rejected.add(delta);
+            }
+        }
+    }
+
+    // One update for the sum of the deltas, false when it was refused or doesn't fit an int.
+    private boolean applySum(Long productId, List<Delta> deltas, ProductOutcome outcome) {
+        long sum = deltas.stream().mapToLong(Delta::delta).sum();
+        if (sum != (int) sum || !adjust(productId, (int) sum)) {
+            return false;
+        }
+        outcome.rows++;
+        outcome.applied.addAll(deltas);
+        return true;
+    }
+
+    private boolean adjust(Long productId, int delta) {
+        return stockService.apply(productId, stockService.getDefaultLocation(), delta);
+    }
+
+    private void report(ProductOutcome outcome) {
+        flushedCounter.increment(outcome.rows);
+        if (!outcome.rejected.isEmpty()) {
+            log.warn("Dropping {} stock deltas for product {}: product missing or stock would go negative",
+                    outcome.rejected.size(), outcome.productId);
+            rejectedCounter.increment(outcome.rejected.size());
+        }
+        for (Delta delta : outcome.applied) {
+            delta.resolve(outcome.productId, true);
+        }
+        for (Delta delta : outcome.rejected) {
+            delta.resolve(outcome.productId, false);
+        }
+    }
+
+    private void requeue(Map<Long, List<Delta>> deltas) {
+        deltas.forEach((productId, requeued) -> {
+            Stripe stripe = stripes[Math.floorMod(productId.hashCode(), stripes.length)];
+            stripe.lock.lock();
+            try {
+                // the requeued deltas were submitted before anything queued since
+                stripe.deltas.merge(productId, requeued, (newer, older) -> {
+                    List<Delta> merged = new ArrayList<>(older);
+                    merged.addAll(newer);
+                    return merged;
+                });
+            } finally {
+                stripe.lock.unlock();
+            }
+        });
+        pendingDeltas.addAndGet(countDeltas(deltas));
+    }
+
+    private static int countDeltas(Map<Long, List<Delta>> deltas) {
+        return deltas.values().stream().mapToInt(List::size).sum();
+    }
+
+    private String resolveNodeId() throws IOException {
+        if (!nodeId.isBlank()) {
+            return nodeId;
+        }
+        Path file = logDirectory.resolve("node-id");
+        if (Files.exists(file)) {
+            return Files.readString(file).trim();
+        }
+        String generated = UUID.randomUUID().toString();
+        Files.writeString(file, generated, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        log.info("Generated write-behind node id {} in {}", generated, file);
+        return generated;
+    }
+
+    private void recover() throws IOException {
+        long checkpoint = checkpointRepository.findById(nodeId).map(WriteBehindCheckpoint::getLastSegment).orElse(0L);
+        Map<Long, List<Delta>> deltas = new TreeMap<>();
+        segment = checkpoint;
+        for (long number : segmentNumbers()) {
+            segment = Math.max(segment, number);
+            if (number > checkpoint) {
+                readSegment(segmentFile(logDirectory, number), deltas);
+            }
+        }
+        if (deltas.isEmpty()) {
+            deleteSegmentsUpTo(segment);
+            return;
+        }
+        log.info("Replaying {} stock deltas from write-behind segments {} to {}", countDeltas(deltas), checkpoint + 1, segment);
+        write(deltas, segment);
+    }
+
+    private void append(Long productId, int delta) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).putLong(productId).putInt(delta).flip();
+        try {
+            while (record.hasRemaining()) {
+                segmentChannel.write(record);
+            }
+            if (durability == Durability.LOG_FSYNC) {
+                segmentChannel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // a record cut off by a crash mid-write was never acknowledged and is ignored
+    private static void readSegment(Path file, Map<Long, List<Delta>> deltas) throws IOException {
+        ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(file));
+        while (records.remaining() >= RECORD_SIZE) {
+            long productId = records.getLong();
+            deltas.computeIfAbsent(productId, id -> new ArrayList<>()).add(new Delta(records.getInt(), null));
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(segmentFile(logDirectory, number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void deleteSegmentsUpTo(long number) {
+        if (durability == Durability.MEMORY) {
+            return;
+        }
+        try {
+            for (long existing : segmentNumbers()) {
+                if (existing <= number) {
+                    Files.deleteIfExists(segmentFile(logDirectory, existing));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete applied write-behind segments up to {}", number, e);
+        }
+    }
+
+    private List<Long> segmentNumbers() throws IOException {
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith("segment-") && name.endsWith(".log"))
+                    .map(name -> Long.parseLong(name.substring("segment-".length(), name.length() - ".log".length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static Path segmentFile(Path directory, long number) {
+        return directory.resolve(String.format("segment-%020d.log", number));
+    }
+
+    private void lockAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // per product, in submission order
+        private final Map<Long, List<Delta>> deltas = new HashMap<>();
+    }
+
+    // submission is null for deltas replayed from a segment
+    private record Delta(int delta, Submission submission) {
+
+        void resolve(Long productId, boolean applied) {
+            if (submission != null) {
+                submission.resolve(productId, applied);
+            }
+        }
+    }
+
+    private static final class Submission {
+
+        private final String id;
+
+        private final AtomicInteger unresolved;
+
+        private final Set<Long> rejectedProductIds = ConcurrentHashMap.newKeySet();
+
+        private Submission(String id, int deltas) {
+            this.id = id;
+            this.unresolved = new AtomicInteger(deltas);
+        }
+
+        private void resolve(Long productId, boolean applied) {
+            if (!applied) {
+                rejectedProductIds.add(productId);
+            }
+            unresolved.decrementAndGet();
+        }
+
+        // unresolved is read first, once it is zero every rejection is visible
+        private StockSubmission toStatus() {
+            boolean pending = unresolved.get() > 0;
+            List<Long> rejected = rejectedProductIds.stream().sorted().toList();
+            StockSubmission.Status status = pending ? StockSubmission.Status.PENDING
+                    : rejected.isEmpty() ? StockSubmission.Status.APPLIED : StockSubmission.Status.REJECTED;
+            return new StockSubmission(id, status, rejected);
+        }
+    }
+
+    private static final class ProductOutcome {
+
+        private final Long productId;
+
+        private final List<Delta> applied = new ArrayList<>();
+
+        private final List<Delta> rejected = new ArrayList<>();
+
+        private int rows;
+
+        private ProductOutcome(Long productId) {
+            this.productId = productId;
+        }
+
+        private static ProductOutcome rejected(Long productId, List<Delta> deltas) {
+            ProductOutcome outcome = new ProductOutcome(productId);
+            outcome.rejected.addAll(deltas);
+            return outcome;
+        }
+    }
+}
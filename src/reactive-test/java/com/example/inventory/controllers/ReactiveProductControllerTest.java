@@ -0,0 +1,118 @@
+package com.example.inventory.controllers;
+
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.models.Product;
+import com.example.inventory.repositories.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the reactive profile against the test H2 database: JPA creates the schema through JDBC and the
+// R2DBC URL opens the same in-memory database.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///testdb?options=MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.r2dbc.username=user",
+        "spring.r2dbc.password=password"
+})
+class ReactiveProductControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void createdProductsAreReadBackWithETag() {
+        Product created = webTestClient.post().uri("/api/v1/products")
+                .headers(headers -> headers.setBasicAuth("admin", "admin"))
+                .bodyValue(product("Airpods 2", 10))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Product.class)
+                .returnResult().getResponseBody();
+
+        assertThat(created.getId()).isNotNull();
+        webTestClient.get().uri("/api/v1/products/{id}", created.getId())
+                .headers(headers -> headers.setBasicAuth("user", "password"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"0\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Airpods 2");
+    }
+
+    @Test
+    void streamReturnsEveryProductInIdOrder() {
+        productRepository.saveAll(List.of(product("Airpods 2", 10), product("Macbook Pro", 3)));
+
+        List<ProductSummary> products = webTestClient.get().uri("/api/v1/products/stream")
+                .headers(headers -> headers.setBasicAuth("user", "password"))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ProductSummary.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(products).extracting(ProductSummary::name).containsExactly("Airpods 2", "Macbook Pro");
+    }
+
+    @Test
+    void stockAdjustmentsCannotOversell() {
+        Product product = productRepository.save(product("Airpods 2", 2));
+
+        webTestClient.post().uri("/api/v1/products/{id}/stock", product.getId())
+                .headers(headers -> headers.setBasicAuth("admin", "admin"))
+                .bodyValue("{\"delta\": -5}")
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        assertThat(productRepository.findById(product.getId())).get().extracting(Product::getQuantity).isEqualTo(2);
+    }
+
+    @Test
+    void validationAndSecurityRulesMatchTheServletStack() {
+        webTestClient.post().uri("/api/v1/products")
+                .headers(headers -> headers.setBasicAuth("admin", "admin"))
+                .bodyValue(product("", 10))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Product Name should be set");
+
+        webTestClient.post().uri("/api/v1/products")
+                .headers(headers -> headers.setBasicAuth("user", "password"))
+                .bodyValue(product("Airpods 2", 10))
+                .exchange()
+                .expectStatus().isForbidden();
+
+        webTestClient.get().uri("/api/v1/products")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    private static Product product(String name, int quantity) {
+        return Product.builder()
+                .name(name)
+                .brand("Apple")
+                .price(BigDecimal.valueOf(960.00))
+                .quantity(quantity).build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.inventory.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// The R2DBC ConnectionFactory makes DataSourceAutoConfiguration back off, but JPA still backs the indexes,
+// snapshots and stock services in this build. The JDBC pool is declared here from the regular
+// spring.datasource.* settings; JPA and JdbcTemplate auto-configuration pick it up as usual.
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveDataSourceConfig {
+
+    // DataSourceRoutingConfig declares the pools when the primary/replica split is enabled
+    @Bean
+    @ConditionalOnProperty(name = "inventory.datasource.routing.enabled", havingValue = "false", matchIfMissing = true)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.inventory.controllers;
+
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.dto.StockAdjustment;
+import com.example.inventory.models.Product;
+import com.example.inventory.services.ReactiveProductService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Same /api/v1/products contract as ProductController, served by WebFlux when the app runs with the
+// reactive profile. Bulk upserts, batch stock adjustments and the change feed stay on the servlet stack.
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/v1/products")
+public class ReactiveProductController {
+
+    @Autowired
+    private ReactiveProductService productService;
+
+    @Value("${inventory.products.page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${inventory.products.search.page-size:20}")
+    private int defaultSearchPageSize;
+
+    @Value("${inventory.products.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${inventory.products.batch.max-ids:500}")
+    private int maxBatchIds;
+
+    // A page is bounded by max-page-size and collected so X-Next-Cursor can be set before the body.
+    @GetMapping
+    public Mono<ResponseEntity<List<?>>> getAllProducts(@RequestParam(required = false) Long after,
+                                                        @RequestParam(required = false) Integer size,
+                                                        @RequestParam(required = false) String fields) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        List<String> selectedFields = fields == null ? null : ProductSummary.parseFields(fields);
+        return productService.getProducts(after, pageSize).collectList().map(products -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (products.size() == pageSize) {
+                response.header(ProductController.NEXT_CURSOR_HEADER, String.valueOf(products.get(products.size() - 1).id()));
+            }
+            return response.body(selectedFields == null
+                    ? products
+                    : products.stream().map(product -> product.select(selectedFields)).toList());
+        });
+    }
+
+    // Each element is written as it arrives, demand from a slow client propagates back to the R2DBC cursor.
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<?> streamProducts(@RequestParam(required = false) String fields) {
+        return selectFields(productService.streamProducts(), fields);
+    }
+
+    @GetMapping("/batch")
+    public Mono<ResponseEntity<List<Product>>> getProductsByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > maxBatchIds) {
+            return Mono.just(ResponseEntity.badRequest().<List<Product>>build());
+        }
+        return productService.getProductsByIds(ids).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Product>> getProductById(@PathVariable Long id) {
+        return productService.getProductById(id)
+                .map(product -> okWithETag(product).body(product))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
+    }
+
+    @GetMapping("/search")
+    public Flux<?> searchProducts(@RequestParam String query,
+                                  @RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(required = false) Integer size,
+                                  @RequestParam(required = false) String fields) {
+        int pageSize = size == null ? defaultSearchPageSize : Math.max(1, Math.min(size, maxPageSize));
+        return selectFields(productService.searchProducts(query, Math.max(page, 0), pageSize), fields);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Product>> createProduct(@Valid @RequestBody Product product) {
+        return productService.createProduct(product)
+                .map(createdProduct -> ResponseEntity.status(HttpStatus.CREATED).body(createdProduct));
+    }
+
+    @PostMapping("/{id}/stock")
+    public Mono<ResponseEntity<Void>> adjustStock(@PathVariable Long id, @Valid @RequestBody StockAdjustment adjustment) {
+        return productService.adjustStock(id, adjustment.getDelta())
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Product>> updateProduct(@PathVariable Long id,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                       @Valid @RequestBody Product product) {
+        return productService.getProductById(id)
+                .flatMap(originalProduct -> {
+                    Long currentVersion = originalProduct.getVersion();
+                    if (ifMatch != null && !ProductController.eTagMatches(ifMatch, currentVersion)) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<Product>body(null));
+                    }
+                    product.setId(id);
+                    if (ifMatch != null || product.getVersion() == null) {
+                        product.setVersion(currentVersion);
+                    }
+                    return productService.updateProduct(product)
+                            .map(updatedProduct -> okWithETag(updatedProduct).body(updatedProduct));
+                })
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteProduct(@PathVariable Long id) {
+        return productService.deleteProduct(id);
+    }
+
+    @GetMapping("/leftovers")
+    public Flux<?> getLeftoverProducts(@RequestParam(required = false) Integer threshold,
+                                       @RequestParam(required = false) String brand,
+                                       @RequestParam(defaultValue = "0") int page,
+                                       @RequestParam(required = false) Integer size,
+                                       @RequestParam(required = false) String fields) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        return selectFields(productService.getLeftoverProducts(threshold, brand, Math.max(page, 0), pageSize), fields);
+    }
+
+    private static Flux<?> selectFields(Flux<ProductSummary> products, String fields) {
+        if (fields == null) {
+            return products;
+        }
+        List<String> selectedFields = ProductSummary.parseFields(fields);
+        return products.map(product -> product.select(selectedFields));
+    }
+
+    private static ResponseEntity.BodyBuilder okWithETag(Product product) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (product.getVersion() != null) {
+            response.eTag(String.valueOf(product.getVersion()));
+        }
+        return response;
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.inventory.repositories;
+
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.models.Product;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Locale;
+
+// R2DBC access to the same products table the JPA entity maps, rows are read straight into
+// ProductSummary / Product without a persistence context.
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductRepository {
+
+    private static final String SELECT_PRODUCT = "SELECT id, name, brand, price, quantity, version FROM products";
+
+    private static final String RANKED_LIKE_SEARCH = SELECT_PRODUCT + """
+             WHERE LOWER(name) LIKE :pattern OR LOWER(brand) LIKE :pattern
+            ORDER BY CASE
+                WHEN LOWER(name) = :term OR LOWER(brand) = :term THEN 0
+                WHEN LOWER(name) LIKE :prefix OR LOWER(brand) LIKE :prefix THEN 1
+                ELSE 2 END, id
+            LIMIT :limit OFFSET :offset
+            """;
+
+    // Every nextval claims a whole block of Hibernate's pooled allocation (allocationSize 50) and only its
+    // upper bound is used here, so ids never collide with the ones the JPA side hands out from its blocks.
+    private static final String INSERT_PRODUCT = """
+            INSERT INTO products (id, name, brand, price, quantity, version)
+            VALUES (nextval('product_id_seq'), :name, :brand, :price, :quantity, 0)
+            """;
+
+    private static final String UPDATE_PRODUCT = """
+            UPDATE products SET name = :name, brand = :brand, price = :price, quantity = :quantity, version = version + 1
+            WHERE id = :id AND version = :version
+            """;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Flux<ProductSummary> findSummariesByIdGreaterThan(long id, int limit) {
+        return databaseClient.sql(SELECT_PRODUCT + " WHERE id > :id ORDER BY id LIMIT :limit")
+                .bind("id", id)
+                .bind("limit", limit)
+                .map(ReactiveProductRepository::toSummary)
+                .all();
+    }
+
+    // Rows are pulled from the server fetchSize at a time as the subscriber requests them.
+    public Flux<ProductSummary> streamSummaries(int fetchSize) {
+        return databaseClient.sql(SELECT_PRODUCT + " ORDER BY id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveProductRepository::toSummary)
+                .all();
+    }
+
+    public Flux<ProductSummary> search(String term, int offset, int limit) {
+        String normalizedTerm = term.trim().toLowerCase(Locale.ROOT);
+        if (normalizedTerm.isEmpty()) {
+            return Flux.empty();
+        }
+        String escapedTerm = ProductSearchRepositoryImpl.escapeLikePattern(normalizedTerm);
+        return databaseClient.sql(RANKED_LIKE_SEARCH)
+                .bind("pattern", "%" + escapedTerm + "%")
+                .bind("prefix", escapedTerm + "%")
+                .bind("term", normalizedTerm)
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(ReactiveProductRepository::toSummary)
+                .all();
+    }
+
+    public Flux<ProductSummary> findSummariesByQuantityLessThan(int quantity, String brand, int offset, int limit) {
+        DatabaseClient.GenericExecuteSpec query = brand == null
+                ? databaseClient.sql(SELECT_PRODUCT + " WHERE quantity < :quantity ORDER BY quantity, id LIMIT :limit OFFSET :offset")
+                : databaseClient.sql(SELECT_PRODUCT + " WHERE brand = :brand AND quantity < :quantity ORDER BY quantity, id LIMIT :limit OFFSET :offset")
+                        .bind("brand", brand);
+        return query.bind("quantity", quantity)
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(ReactiveProductRepository::toSummary)
+                .all();
+    }
+
+    public Mono<Product> findById(long id) {
+        return databaseClient.sql(SELECT_PRODUCT + " WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveProductRepository::toProduct)
+                .one();
+    }
+
+    public Flux<Product> findAllById(Collection<Long> ids) {
+        return databaseClient.sql(SELECT_PRODUCT + " WHERE id IN (:ids)")
+                .bind("ids", ids)
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    public Mono<Boolean> existsById(long id) {
+        return databaseClient.sql("SELECT 1 FROM products WHERE id = :id")
+                .bind("id", id)
+                .map(row -> true)
+                .one()
+                .defaultIfEmpty(false);
+    }
+
+    public Mono<Integer> findQuantityById(long id) {
+        return databaseClient.sql("SELECT quantity FROM products WHERE id = :id")
+                .bind("id", id)
+                .map(row -> row.get("quantity", Integer.class))
+                .one();
+    }
+
+    public Mono<Long> insert(Product product) {
+        return databaseClient.sql(INSERT_PRODUCT)
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bind("name", product.getName())
+                .bind("brand", product.getBrand())
+                .bind("price", product.getPrice())
+                .bind("quantity", product.getQuantity())
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    public Mono<Long> update(Product product) {
+        return databaseClient.sql(UPDATE_PRODUCT)
+                .bind("name", product.getName())
+                .bind("brand", product.getBrand())
+                .bind("price", product.getPrice())
+                .bind("quantity", product.getQuantity())
+                .bind("id", product.getId())
+                .bind("version", product.getVersion())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> adjustQuantity(long id, int delta) {
+        return databaseClient.sql("UPDATE products SET quantity = quantity + :delta, version = version + 1 WHERE id = :id AND CAST(quantity AS BIGINT) + :delta BETWEEN 0 AND 2147483647")
+                .bind("delta", delta)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> adjustStockLevel(long productId, String location, int delta) {
+        Mono<Long> insertIfAbsent = delta < 0 ? Mono.just(0L) : databaseClient.sql(
+                        "INSERT INTO stock_levels (product_id, location, quantity) VALUES (:id, :location, 0) ON CONFLICT DO NOTHING")
+                .bind("id", productId)
+                .bind("location", location)
+                .fetch()
+                .rowsUpdated();
+        return insertIfAbsent.then(databaseClient.sql(
+                        "UPDATE stock_levels SET quantity = quantity + :delta WHERE product_id = :id AND location = :location AND CAST(quantity AS BIGINT) + :delta BETWEEN 0 AND 2147483647")
+                .bind("delta", delta)
+                .bind("id", productId)
+                .bind("location", location)
+                .fetch()
+                .rowsUpdated());
+    }
+
+    // Same statements as StockService.syncDefaultLocations for one product, emits false when the
+    // product's other locations hold more than its quantity.
+    public Mono<Boolean> syncDefaultLocation(long productId, String location) {
+        return databaseClient.sql(StockLevelRepository.INSERT_DEFAULT_LOCATIONS + " AND p.id = :id ON CONFLICT DO NOTHING")
+                .bind("location", location)
+                .bind("id", productId)
+                .fetch()
+                .rowsUpdated()
+                .then(databaseClient.sql(StockLevelRepository.SYNC_DEFAULT_LOCATIONS + " AND s.product_id = :id")
+                        .bind("location", location)
+                        .bind("id", productId)
+                        .fetch()
+                        .rowsUpdated())
+                .then(databaseClient.sql(StockLevelRepository.SELECT_UNBALANCED_PRODUCT_IDS + " AND p.id = :id")
+                        .bind("id", productId)
+                        .map(row -> false)
+                        .one()
+                        .defaultIfEmpty(true));
+    }
+
+    public Mono<Long> deleteStockLevels(long productId) {
+        return databaseClient.sql("DELETE FROM stock_levels WHERE product_id = :id")
+                .bind("id", productId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(long id) {
+        return databaseClient.sql("DELETE FROM products WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static ProductSummary toSummary(Readable row) {
+        return new ProductSummary(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("brand", String.class),
+                row.get("price", BigDecimal.class),
+                row.get("quantity", Integer.class),
+                row.get("version", Long.class));
+    }
+
+    private static Product toProduct(Readable row) {
+        return Product.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .brand(row.get("brand", String.class))
+                .price(row.get("price", BigDecimal.class))
+                .quantity(row.get("quantity", Integer.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
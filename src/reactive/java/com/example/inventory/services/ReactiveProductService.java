@@ -0,0 +1,200 @@
+package com.example.inventory.services;
+
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.events.ProductChangedEvent;
+import com.example.inventory.exception.InsufficientStockException;
+import com.example.inventory.exception.ProductNotFoundException;
+import com.example.inventory.models.Product;
+import com.example.inventory.repositories.ReactiveProductRepository;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Non-blocking counterpart of ProductService. Writes keep the products cache and the change events
+// (LowStockIndex, change feed) in step with the JPA side. Some listeners re-read the product through JPA,
+// so events are published on the bounded elastic scheduler rather than on an event-loop thread.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductService {
+
+    @Autowired
+    private ReactiveProductRepository productRepository;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.leftovers.threshold:5}")
+    private int leftoverThreshold;
+
+    @Value("${inventory.reactive.stream-fetch-size:500}")
+    private int streamFetchSize;
+
+    @Value("${inventory.stock.default-location:default}")
+    private String defaultLocation;
+
+    private Cache productsCache;
+
+    private TransactionalOperator transactionalOperator;
+
+    // Not a bean: a second TransactionManager in the context would take @Transactional away from JPA.
+    @PostConstruct
+    public void init() {
+        productsCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    public Flux<ProductSummary> getProducts(Long afterId, int size) {
+        return productRepository.findSummariesByIdGreaterThan(afterId == null ? 0L : afterId, size);
+    }
+
+    public Flux<ProductSummary> streamProducts() {
+        return productRepository.streamSummaries(streamFetchSize);
+    }
+
+    public Flux<ProductSummary> searchProducts(String query, int page, int size) {
+        if (ProductService.beyondLastRow(page, size)) {
+            return Flux.empty();
+        }
+        return productRepository.search(query, page * size, size);
+    }
+
+    public Flux<ProductSummary> getLeftoverProducts(Integer threshold, String brand, int page, int size) {
+        if (ProductService.beyondLastRow(page, size)) {
+            return Flux.empty();
+        }
+        int quantityThreshold = threshold == null ? leftoverThreshold : threshold;
+        return productRepository.findSummariesByQuantityLessThan(quantityThreshold, brand, page * size, size);
+    }
+
+    public Mono<Product> getProductById(Long id) {
+        Product cached = productsCache.get(id, Product.class);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return productRepository.findById(id)
+                .doOnNext(product -> productsCache.put(id, product));
+    }
+
+    public Mono<List<Product>> getProductsByIds(List<Long> ids) {
+        Map<Long, Product> products = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Product cached = productsCache.get(id, Product.class);
+            if (cached == null) {
+                missingIds.add(id);
+            } else {
+                products.put(id, cached);
+            }
+        }
+        Flux<Product> loaded = missingIds.isEmpty() ? Flux.empty() : productRepository.findAllById(missingIds);
+        return loaded
+                .doOnNext(product -> {
+                    products.put(product.getId(), product);
+                    productsCache.put(product.getId(), product);
+                })
+                .then(Mono.fromSupplier(() -> ids.stream().distinct().map(products::get).filter(Objects::nonNull).toList()));
+    }
+
+    // The quantity lands in the default location, like ProductService.saveProduct.
+    public Mono<Product> createProduct(Product product) {
+        return productRepository.insert(product)
+                .flatMap(id -> productRepository.syncDefaultLocation(id, defaultLocation).thenReturn(id))
+                .as(transactionalOperator::transactional)
+                .publishOn(Schedulers.boundedElastic())
+                .map(id -> {
+                    product.setId(id);
+                    product.setVersion(0L);
+                    return saved(product);
+                });
+    }
+
+    // The version is checked in the UPDATE itself, a stale one updates no row. A new quantity is moved
+    // into the default location and rolled back with the update when other locations hold more.
+    public Mono<Product> updateProduct(Product product) {
+        return productRepository.update(product)
+                .flatMap(rows -> {
+                    if (rows == 0) {
+                        productsCache.evict(product.getId());
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Product " + product.getId() + " is no longer at version " + product.getVersion()));
+                    }
+                    return productRepository.syncDefaultLocation(product.getId(), defaultLocation);
+                })
+                .flatMap(balanced -> balanced
+                        ? Mono.just(product)
+                        : Mono.error(new InsufficientStockException(List.of(product.getId()))))
+                .as(transactionalOperator::transactional)
+                .publishOn(Schedulers.boundedElastic())
+                .map(updated -> {
+                    updated.setVersion(updated.getVersion() + 1);
+                    return saved(updated);
+                });
+    }
+
+    public Mono<Void> deleteProduct(Long id) {
+        return productRepository.deleteStockLevels(id)
+                .then(productRepository.deleteById(id))
+                .as(transactionalOperator::transactional)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnSuccess(rows -> {
+                    productsCache.evict(id);
+                    eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+                })
+                .then();
+    }
+
+    // Product total first and then its default location, in the same order as StockService. The new total
+    // is read before commit, while the transaction still holds the product row.
+    public Mono<Void> adjustStock(Long id, int delta) {
+        return productRepository.adjustQuantity(id, delta)
+                .<Integer>flatMap(rows -> {
+                    if (rows > 0) {
+                        return productRepository.adjustStockLevel(id, defaultLocation, delta)
+                                .flatMap(locationRows -> locationRows > 0
+                                        ? productRepository.findQuantityById(id)
+                                        : Mono.<Integer>error(new InsufficientStockException(List.of(id))));
+                    }
+                    return productRepository.existsById(id)
+                            .flatMap(exists -> Mono.<Integer>error(exists
+                                    ? new InsufficientStockException(List.of(id))
+                                    : new ProductNotFoundException(id)));
+                })
+                .as(transactionalOperator::transactional)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnTerminate(() -> productsCache.evict(id))
+                .doOnNext(quantity -> eventPublisher.publishEvent(ProductChangedEvent.stockAdjusted(id, delta, quantity)))
+                .then();
+    }
+
+    private Product saved(Product product) {
+        productsCache.put(product.getId(), product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(product));
+        return product;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.inventory.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.aot.DisabledInAotMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInAotMode
+class CachingPasswordEncoderTest {
+
+    @Mock
+    private PasswordEncoder delegate;
+
+    private CachingPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        passwordEncoder = new CachingPasswordEncoder(delegate, "maximumSize=100,expireAfterWrite=1m");
+    }
+
+    @Test
+    void successfulMatchIsVerifiedOnce() {
+        when(delegate.matches("password", "hash")).thenReturn(true);
+
+        assertThat(passwordEncoder.matches("password", "hash")).isTrue();
+        assertThat(passwordEncoder.matches("password", "hash")).isTrue();
+
+        verify(delegate, times(1)).matches("password", "hash");
+    }
+
+    @Test
+    void failedMatchIsNotCached() {
+        when(delegate.matches("wrong", "hash")).thenReturn(false);
+
+        assertThat(passwordEncoder.matches("wrong", "hash")).isFalse();
+        assertThat(passwordEncoder.matches("wrong", "hash")).isFalse();
+
+        verify(delegate, times(2)).matches("wrong", "hash");
+    }
+
+    @Test
+    void changedPasswordHashIsVerifiedAgain() {
+        when(delegate.matches("password", "hash")).thenReturn(true);
+        when(delegate.matches("password", "new-hash")).thenReturn(false);
+
+        assertThat(passwordEncoder.matches("password", "hash")).isTrue();
+        assertThat(passwordEncoder.matches("password", "new-hash")).isFalse();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.inventory.config;
+
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.models.Product;
+import com.example.inventory.repositories.ProductRepository;
+import com.example.inventory.services.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The in-memory "testdb" plays the primary and a second H2 database the replica, so the replica only
+// sees rows that were written to it directly.
+@SpringBootTest(properties = {
+        "inventory.datasource.routing.enabled=true",
+        "inventory.datasource.replica-urls=jdbc:h2:mem:replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;INIT=RUNSCRIPT FROM 'classpath:replica-schema.sql'"
+})
+class DataSourceRoutingTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        replica = new JdbcTemplate((DataSource) routingDataSource.getResolvedDataSources().get(ReadWriteRoutingDataSource.replicaKey(0)));
+        replica.update("INSERT INTO products (id, name, brand, price, quantity, version) VALUES (1000, 'Replica Only', 'Acme', 1.00, 1, 0)");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        replica.update("DELETE FROM products");
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplica() {
+        assertThat(currentDatabase(true)).isEqualToIgnoringCase("replica");
+        assertThat(currentDatabase(false)).isEqualToIgnoringCase("testdb");
+    }
+
+    @Test
+    void readsFollowWritesOfTheSameUser() {
+        assertThat(productService.getProducts(null, 10))
+                .extracting(ProductSummary::name)
+                .containsExactly("Replica Only");
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+        productService.saveProduct(Product.builder()
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(120).build());
+
+        assertThat(productService.getProducts(null, 10))
+                .extracting(ProductSummary::name)
+                .containsExactly("Macbook Pro");
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "user", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        assertThat(productService.getProducts(null, 10))
+                .extracting(ProductSummary::name)
+                .containsExactly("Replica Only");
+    }
+
+    @Test
+    void cachedLookupsAndExistenceChecksUsePrimary() {
+        assertThat(productService.getProductById(1000L)).isEmpty();
+        assertThat(productService.getProductsByIds(List.of(1000L))).isEmpty();
+        assertThat(productRepository.existsById(1000L)).isFalse();
+        assertThat(productRepository.findQuantityViewById(1000L)).isEmpty();
+    }
+
+    @Test
+    void primaryLookupsDoNotPinReadersToThePrimary() {
+        // a GET /{id} cache miss, anonymous and by a signed-in reader
+        assertThat(productService.getProductById(1000L)).isEmpty();
+        assertThat(productService.getProducts(null, 10))
+                .extracting(ProductSummary::name)
+                .containsExactly("Replica Only");
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "user", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        assertThat(productService.getProductById(1001L)).isEmpty();
+        assertThat(productService.getProducts(null, 10))
+                .extracting(ProductSummary::name)
+                .containsExactly("Replica Only");
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> new JdbcTemplate(dataSource).queryForObject("SELECT DATABASE()", String.class));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.inventory.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "inventory.rate-limit.enabled=true",
+        "inventory.rate-limit.endpoints.search.method=GET",
+        "inventory.rate-limit.endpoints.search.path=/api/v1/products/search",
+        "inventory.rate-limit.endpoints.search.capacity=2",
+        "inventory.rate-limit.endpoints.search.refill-per-second=0.01"
+})
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void requestsOverTheEndpointLimitAreRejectedPerUser() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/v1/products/search").param("query", "apple").with(user("alice")))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/v1/products/search").param("query", "apple").with(user("alice")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        // other users and other endpoints have their own buckets
+        mockMvc.perform(get("/api/v1/products/search").param("query", "apple").with(user("bob")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/products").with(user("alice")))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.counter("inventory.requests.rejected", "reason", "rate_limited", "endpoint", "search").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void tokenBucketRefillsOverTime() {
+        long start = 0;
+        TokenBucket bucket = new TokenBucket(2, 10, start);
+
+        assertThat(bucket.tryAcquire(start)).isZero();
+        assertThat(bucket.tryAcquire(start)).isZero();
+        assertThat(bucket.tryAcquire(start)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(bucket.tryAcquire(start + TimeUnit.MILLISECONDS.toNanos(100))).isZero();
+    }
+
+    @Test
+    void tokenBucketNeedsAPositiveRefillRate() {
+        assertThatThrownBy(() -> new TokenBucket(2, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
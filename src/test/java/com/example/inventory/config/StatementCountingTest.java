@@ -0,0 +1,74 @@
+package com.example.inventory.config;
+
+import com.example.inventory.models.Product;
+import com.example.inventory.repositories.ProductRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "inventory.metrics.statements.enabled=true",
+        "management.observations.annotations.enabled=true"
+})
+@AutoConfigureMockMvc
+class StatementCountingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser
+    void requestsRecordTheirStatementCount() throws Exception {
+        Product product = productRepository.save(Product.builder()
+                .name("Airpods 2")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(960.00))
+                .quantity(10).build());
+
+        mockMvc.perform(get("/api/v1/products/{id}", product.getId()))
+                .andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get("inventory.http.jdbc.statements")
+                .tag("method", "GET")
+                .tag("uri", "/api/v1/products/{id}")
+                .summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    @WithMockUser
+    void serviceMethodsAreTimedByOperation() throws Exception {
+        mockMvc.perform(get("/api/v1/products"))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("inventory.service")
+                .tag("class", "com.example.inventory.services.ProductService")
+                .tag("method", "getProducts")
+                .timer()
+                .count()).isEqualTo(1);
+    }
+}
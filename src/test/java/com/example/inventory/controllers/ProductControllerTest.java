@@ -1,29 +1,52 @@
 package com.example.inventory.controllers;
 
+import com.example.inventory.dto.BrandSummary;
+import com.example.inventory.dto.BulkItemResult;
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.dto.StockAdjustment;
+import com.example.inventory.dto.StockAdjustmentBatch;
+import com.example.inventory.exception.InsufficientStockException;
 import com.example.inventory.models.Product;
+import com.example.inventory.services.OffHeapStockTable;
+import com.example.inventory.services.ProductBulkService;
+import com.example.inventory.services.ProductChangeFeed;
 import com.example.inventory.services.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ProductController.class)
+@DisabledInAotMode
 class ProductControllerTest {
 
     @Autowired
@@ -32,37 +55,86 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductBulkService productBulkService;
+
+    @MockBean
+    private ProductChangeFeed productChangeFeed;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getAllProducts() throws Exception {
-        Product product1 = Product.builder()
-                .name("Macbook Pro")
-                .brand("Apple")
-                .price(BigDecimal.valueOf(1099.00))
-                .quantity(120).build();
+        ProductSummary product1 = new ProductSummary(null, "Macbook Pro", "Apple",
+                BigDecimal.valueOf(1099.00), 120, null);
 
-        Product product2 = Product.builder()
-                .name("Airpods 2")
-                .brand("Apple")
-                .price(BigDecimal.valueOf(960.00))
-                .quantity(23).build();
+        ProductSummary product2 = new ProductSummary(null, "Airpods 2", "Apple",
+                BigDecimal.valueOf(960.00), 23, null);
 
-        Mockito.when(productService.getAllProducts()).thenReturn(Arrays.asList(product1, product2));
+        Mockito.when(productService.getProducts(null, 100)).thenReturn(Arrays.asList(product1, product2));
 
         mockMvc.perform(get("/api/v1/products"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ProductController.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].name", is(product1.getName())))
-                .andExpect(jsonPath("$[0].brand", is(product1.getBrand())))
+                .andExpect(jsonPath("$[0].name", is(product1.name())))
+                .andExpect(jsonPath("$[0].brand", is(product1.brand())))
                 .andExpect(jsonPath("$[0].price", equalTo(1099.00)))
-                .andExpect(jsonPath("$[0].quantity", is(product1.getQuantity())))
-                .andExpect(jsonPath("$[1].name", is(product2.getName())))
-                .andExpect(jsonPath("$[1].brand", is(product2.getBrand())))
+                .andExpect(jsonPath("$[0].quantity", is(product1.quantity())))
+                .andExpect(jsonPath("$[1].name", is(product2.name())))
+                .andExpect(jsonPath("$[1].brand", is(product2.brand())))
                 .andExpect(jsonPath("$[1].price", equalTo(960.00)))
-                .andExpect(jsonPath("$[1].quantity", is(product2.getQuantity())));
+                .andExpect(jsonPath("$[1].quantity", is(product2.quantity())));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getAllProductsNextPage() throws Exception {
+        ProductSummary product1 = new ProductSummary(11L, "Macbook Pro", "Apple",
+                BigDecimal.valueOf(1099.00), 120, null);
+
+        ProductSummary product2 = new ProductSummary(12L, "Airpods 2", "Apple",
+                BigDecimal.valueOf(960.00), 23, null);
+
+        Mockito.when(productService.getProducts(10L, 2)).thenReturn(Arrays.asList(product1, product2));
+
+        mockMvc.perform(get("/api/v1/products").param("after", "10").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ProductController.NEXT_CURSOR_HEADER, "12"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(11)))
+                .andExpect(jsonPath("$[1].id", is(12)));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void streamProducts() throws Exception {
+        ProductSummary product1 = new ProductSummary(1L, "Macbook Pro", "Apple",
+                BigDecimal.valueOf(1099.00), 120, null);
+
+        ProductSummary product2 = new ProductSummary(2L, "Airpods 2", "Apple",
+                BigDecimal.valueOf(960.00), 23, null);
+
+        Mockito.doAnswer(invocation -> {
+            Consumer<ProductSummary> consumer = invocation.getArgument(0);
+            consumer.accept(product1);
+            consumer.accept(product2);
+            return null;
+        }).when(productService).streamProducts(Mockito.any());
+
+        mockMvc.perform(get("/api/v1/products/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(product1) + "\n"
+                        + objectMapper.writeValueAsString(product2)));
+
+        mockMvc.perform(get("/api/v1/products/stream").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name", is(product1.name())))
+                .andExpect(jsonPath("$[1].name", is(product2.name())));
     }
 
     @Test
@@ -91,6 +163,99 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.quantity", is(product.getQuantity())));
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void getProductsByIds() throws Exception {
+        Product product1 = Product.builder().id(1L).name("Macbook Pro").brand("Apple").build();
+        Product product2 = Product.builder().id(3L).name("Airpods 2").brand("Apple").build();
+
+        Mockito.when(productService.getProductsByIds(List.of(3L, 1L, 7L))).thenReturn(List.of(product2, product1));
+
+        mockMvc.perform(get("/api/v1/products/batch").param("ids", "3,1,7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(3)))
+                .andExpect(jsonPath("$[1].id", is(1)));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getProductsByIdsRejectsTooManyIds() throws Exception {
+        String ids = LongStream.rangeClosed(1, 501).mapToObj(String::valueOf).collect(Collectors.joining(","));
+
+        mockMvc.perform(get("/api/v1/products/batch").param("ids", ids))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(productService);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void checkAvailability() throws Exception {
+        Mockito.when(productService.getAvailableQuantity(1L)).thenReturn(5);
+        Mockito.when(productService.getAvailableQuantity(2L)).thenReturn(OffHeapStockTable.ABSENT);
+
+        mockMvc.perform(get("/api/v1/products/1/availability").param("quantity", "5"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/v1/products/1/availability").param("quantity", "6"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/api/v1/products/2/availability"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/products/1/availability").param("quantity", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getBrandSummaries() throws Exception {
+        Mockito.when(productService.getBrandSummaries()).thenReturn(List.of(
+                new BrandSummary("Apple", 2L, 143L, new BigDecimal("153948.00"), 0L)));
+
+        mockMvc.perform(get("/api/v1/products/aggregates/brands"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].brand", is("Apple")))
+                .andExpect(jsonPath("$[0].products", is(2)))
+                .andExpect(jsonPath("$[0].quantity", is(143)))
+                .andExpect(jsonPath("$[0].lowStockProducts", is(0)));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getPriceBucketsRejectsNonPositiveWidth() throws Exception {
+        mockMvc.perform(get("/api/v1/products/aggregates/price-buckets").param("width", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/products/aggregates/price-buckets").param("width", "0.001"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(productService);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getProductByIdNotModified() throws Exception {
+        Product product = Product.builder()
+                .id(1L)
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(120)
+                .version(3L).build();
+
+        Mockito.when(productService.getProductById(1L)).thenReturn(Optional.of(product));
+
+        mockMvc.perform(get("/api/v1/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+        mockMvc.perform(get("/api/v1/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/v1/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is(3)));
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void getProductByIdNonExistent() throws Exception {
@@ -163,6 +328,110 @@ class ProductControllerTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void bulkUpsertProducts() throws Exception {
+        Product product1 = Product.builder()
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(120).build();
+
+        Product product2 = Product.builder()
+                .name("Airpods 2")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(960.00))
+                .quantity(23).build();
+
+        List<Product> received = new ArrayList<>();
+        Mockito.when(productBulkService.upsertProducts(Mockito.any())).thenAnswer(invocation -> {
+            Iterator<Product> products = invocation.getArgument(0);
+            products.forEachRemaining(received::add);
+            return List.of(
+                    BulkItemResult.builder().index(0).status(BulkItemResult.Status.CREATED).id(1L).build(),
+                    BulkItemResult.builder().index(1).status(BulkItemResult.Status.CREATED).id(2L).build());
+        });
+
+        mockMvc.perform(post("/api/v1/products/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(product1) + "\n" + objectMapper.writeValueAsString(product2))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[1].id", is(2)));
+
+        assertThat(received).containsExactly(product1, product2);
+
+        received.clear();
+        mockMvc.perform(post("/api/v1/products/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(product1, product2)))
+                        .with(csrf()))
+                .andExpect(status().isOk());
+
+        assertThat(received).containsExactly(product1, product2);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void adjustStock() throws Exception {
+        mockMvc.perform(post("/api/v1/products/1/stock")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"delta\": -3}")
+                        .with(csrf()))
+                .andExpect(status().isNoContent());
+
+        Mockito.verify(productService).adjustStock(1L, -3);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void adjustStockInsufficient() throws Exception {
+        Mockito.doThrow(new InsufficientStockException(List.of(1L)))
+                .when(productService).adjustStock(1L, -500);
+
+        mockMvc.perform(post("/api/v1/products/1/stock")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"delta\": -500}")
+                        .with(csrf()))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.productIds", contains(1)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void adjustStockBatch() throws Exception {
+        StockAdjustmentBatch batch = StockAdjustmentBatch.builder()
+                .adjustments(List.of(
+                        StockAdjustment.builder().productId(1L).delta(-2).build(),
+                        StockAdjustment.builder().productId(2L).delta(-1).build()))
+                .build();
+
+        mockMvc.perform(post("/api/v1/products/stock")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch))
+                        .with(csrf()))
+                .andExpect(status().isNoContent());
+
+        Mockito.verify(productService).adjustStock(batch.getAdjustments());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void adjustStockBatchInvalid() throws Exception {
+        StockAdjustmentBatch batch = StockAdjustmentBatch.builder()
+                .adjustments(List.of(StockAdjustment.builder().delta(-2).build()))
+                .build();
+
+        mockMvc.perform(post("/api/v1/products/stock")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch))
+                        .with(csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.productIdsSet").value("Every stock adjustment should have a product id"));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void updateProductNonExistent() throws Exception {
@@ -206,6 +475,78 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.quantity", is(product.getQuantity())));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void updateProductIfMatch() throws Exception {
+        Product originalProduct = Product.builder()
+                .id(1L)
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(120)
+                .version(3L).build();
+
+        Product product = Product.builder()
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(100).build();
+
+        Product updatedProduct = Product.builder()
+                .id(1L)
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(100)
+                .version(4L).build();
+
+        Mockito.when(productService.getProductById(1L)).thenReturn(Optional.of(originalProduct));
+        Mockito.when(productService.saveProduct(Mockito.any(Product.class))).thenReturn(updatedProduct);
+
+        mockMvc.perform(put("/api/v1/products/1")
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(product))
+                        .with(csrf()))
+                .andExpect(status().isPreconditionFailed());
+
+        Mockito.verify(productService, Mockito.never()).saveProduct(Mockito.any(Product.class));
+
+        mockMvc.perform(put("/api/v1/products/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(product))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.quantity", is(100)));
+
+        Mockito.verify(productService).saveProduct(Mockito.argThat(saved ->
+                saved.getId().equals(1L) && saved.getVersion().equals(3L)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void updateProductConflict() throws Exception {
+        Product product = Product.builder()
+                .id(1L)
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(120)
+                .version(3L).build();
+
+        Mockito.when(productService.getProductById(1L)).thenReturn(Optional.of(product));
+        Mockito.when(productService.saveProduct(Mockito.any(Product.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L));
+
+        mockMvc.perform(put("/api/v1/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(product))
+                        .with(csrf()))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void deleteProduct() throws Exception {
@@ -219,40 +560,133 @@ class ProductControllerTest {
     @Test
     @WithMockUser(roles = "USER")
     void searchProducts() throws Exception {
-        Product product = Product.builder()
-                .name("Macbook Pro")
-                .brand("Apple")
-                .price(BigDecimal.valueOf(1099.00))
-                .quantity(120).build();
+        ProductSummary product = new ProductSummary(null, "Macbook Pro", "Apple",
+                BigDecimal.valueOf(1099.00), 120, null);
 
-        Mockito.when(productService.searchProducts("macbook")).thenReturn(List.of(product));
+        Mockito.when(productService.searchProducts("macbook", 0, 20)).thenReturn(List.of(product));
 
         mockMvc.perform(get("/api/v1/products/search").param("query", "macbook"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].name", is(product.getName())))
-                .andExpect(jsonPath("$[0].brand", is(product.getBrand())))
+                .andExpect(jsonPath("$[0].name", is(product.name())))
+                .andExpect(jsonPath("$[0].brand", is(product.brand())))
                 .andExpect(jsonPath("$[0].price", equalTo(1099.00)))
-                .andExpect(jsonPath("$[0].quantity", is(product.getQuantity())));
+                .andExpect(jsonPath("$[0].quantity", is(product.quantity())));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void searchProductsPaged() throws Exception {
+        Mockito.when(productService.searchProducts("apple", 2, 5)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/v1/products/search")
+                        .param("query", "apple")
+                        .param("page", "2")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        Mockito.verify(productService).searchProducts("apple", 2, 5);
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getLeftoverProducts() throws Exception {
-        Product product = Product.builder()
-                .name("Airpods 2")
-                .brand("Apple")
-                .price(BigDecimal.valueOf(960.00))
-                .quantity(3).build();
+        ProductSummary product = new ProductSummary(null, "Airpods 2", "Apple",
+                BigDecimal.valueOf(960.00), 3, null);
 
-        Mockito.when(productService.getLeftoverProducts()).thenReturn(List.of(product));
+        Mockito.when(productService.getLeftoverProducts(null, null, 0, 100)).thenReturn(List.of(product));
 
         mockMvc.perform(get("/api/v1/products/leftovers"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].name", is(product.getName())))
-                .andExpect(jsonPath("$[0].brand", is(product.getBrand())))
+                .andExpect(jsonPath("$[0].name", is(product.name())))
+                .andExpect(jsonPath("$[0].brand", is(product.brand())))
                 .andExpect(jsonPath("$[0].price", equalTo(960.00)))
-                .andExpect(jsonPath("$[0].quantity", is(product.getQuantity())));
+                .andExpect(jsonPath("$[0].quantity", is(product.quantity())));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getLeftoverProductsByBrand() throws Exception {
+        Mockito.when(productService.getLeftoverProducts(10, "Apple", 1, 25)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/v1/products/leftovers")
+                        .param("threshold", "10")
+                        .param("brand", "Apple")
+                        .param("page", "1")
+                        .param("size", "25"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        Mockito.verify(productService).getLeftoverProducts(10, "Apple", 1, 25);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void streamChangesResumesFromLastEventId() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        Mockito.when(productChangeFeed.subscribe(7L)).thenReturn(emitter);
+
+        mockMvc.perform(get("/api/v1/products/changes")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "7"))
+                .andExpect(request().asyncStarted());
+
+        Mockito.verify(productChangeFeed).subscribe(7L);
+        emitter.complete();
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getAllProductsWithSelectedFields() throws Exception {
+        ProductSummary product = new ProductSummary(11L, "Macbook Pro", "Apple",
+                BigDecimal.valueOf(1099.00), 120, 3L);
+
+        Mockito.when(productService.getProducts(null, 100)).thenReturn(List.of(product));
+
+        mockMvc.perform(get("/api/v1/products").param("fields", "id, name,quantity"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(11)))
+                .andExpect(jsonPath("$[0].name", is("Macbook Pro")))
+                .andExpect(jsonPath("$[0].quantity", is(120)))
+                .andExpect(jsonPath("$[0].brand").doesNotExist())
+                .andExpect(jsonPath("$[0].price").doesNotExist())
+                .andExpect(jsonPath("$[0].version").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getLeftoverProductsWithUnknownField() throws Exception {
+        mockMvc.perform(get("/api/v1/products/leftovers").param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fields", contains("password")));
+
+        Mockito.verifyNoInteractions(productService);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getAllProductsAsBinaryFormats() throws Exception {
+        ProductSummary product = new ProductSummary(11L, "Macbook Pro", "Apple",
+                new BigDecimal("1099.00"), 120, 3L);
+
+        Mockito.when(productService.getProducts(null, 100)).thenReturn(List.of(product));
+
+        byte[] smile = mockMvc.perform(get("/api/v1/products").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode smileProducts = new SmileMapper().readTree(smile);
+        assertThat(smileProducts.get(0).get("name").asText()).isEqualTo("Macbook Pro");
+        assertThat(smileProducts.get(0).get("price").decimalValue()).isEqualByComparingTo("1099.00");
+
+        byte[] cbor = mockMvc.perform(get("/api/v1/products").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode cborProducts = new CBORMapper().readTree(cbor);
+        assertThat(cborProducts.get(0).get("id").asLong()).isEqualTo(11L);
+        assertThat(cborProducts.get(0).get("quantity").asInt()).isEqualTo(120);
     }
 }
@@ -0,0 +1,63 @@
+package com.example.inventory.controllers;
+
+import com.example.inventory.config.SecurityConfig;
+import com.example.inventory.dto.SnapshotSummary;
+import com.example.inventory.exception.SnapshotNotFoundException;
+import com.example.inventory.services.ProductSnapshotService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SnapshotController.class)
+@Import(SecurityConfig.class)
+@DisabledInAotMode
+class SnapshotControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductSnapshotService productSnapshotService;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void createSnapshot() throws Exception {
+        Mockito.when(productSnapshotService.export())
+                .thenReturn(new SnapshotSummary("products-1.csv", 3, 120, 5));
+
+        mockMvc.perform(post("/api/v1/admin/snapshots"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", endsWith("/api/v1/admin/snapshots/products-1.csv")))
+                .andExpect(jsonPath("$.name", is("products-1.csv")))
+                .andExpect(jsonPath("$.rows", is(3)));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void createSnapshotRequiresAdmin() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/snapshots"))
+                .andExpect(status().isForbidden());
+
+        Mockito.verifyNoInteractions(productSnapshotService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void verifyUnknownSnapshot() throws Exception {
+        Mockito.when(productSnapshotService.verify("missing.csv"))
+                .thenThrow(new SnapshotNotFoundException("missing.csv"));
+
+        mockMvc.perform(get("/api/v1/admin/snapshots/missing.csv/verification"))
+                .andExpect(status().isNotFound());
+    }
+}
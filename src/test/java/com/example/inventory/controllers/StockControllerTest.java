@@ -0,0 +1,99 @@
+package com.example.inventory.controllers;
+
+import com.example.inventory.exception.InsufficientStockException;
+import com.example.inventory.models.StockLevel;
+import com.example.inventory.services.StockService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StockController.class)
+@DisabledInAotMode
+class StockControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StockService stockService;
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getStockLevels() throws Exception {
+        Mockito.when(stockService.getStockLevels(1L)).thenReturn(List.of(
+                new StockLevel(1L, "berlin", 6),
+                new StockLevel(1L, "hamburg", 5)));
+
+        mockMvc.perform(get("/api/v1/products/1/stock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].location", is("berlin")))
+                .andExpect(jsonPath("$[0].quantity", is(6)))
+                .andExpect(jsonPath("$[1].location", is("hamburg")));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void adjustStock() throws Exception {
+        mockMvc.perform(post("/api/v1/products/1/stock/berlin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"delta\": 4}")
+                        .with(csrf()))
+                .andExpect(status().isNoContent());
+
+        Mockito.verify(stockService).adjustStock(1L, "berlin", 4);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void adjustStockInsufficient() throws Exception {
+        Mockito.doThrow(new InsufficientStockException(List.of(1L)))
+                .when(stockService).adjustStock(1L, "berlin", -10);
+
+        mockMvc.perform(post("/api/v1/products/1/stock/berlin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"delta\": -10}")
+                        .with(csrf()))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.productIds", contains(1)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void adjustStockInvalidLocation() throws Exception {
+        mockMvc.perform(post("/api/v1/products/1/stock/ber lin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"delta\": 4}")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(stockService);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getLocationStock() throws Exception {
+        Mockito.when(stockService.getLocationStock("berlin", 10L, 2)).thenReturn(List.of(
+                new StockLevel(11L, "berlin", 1),
+                new StockLevel(12L, "berlin", 2)));
+
+        mockMvc.perform(get("/api/v1/locations/berlin/stock").param("after", "10").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ProductController.NEXT_CURSOR_HEADER, "12"))
+                .andExpect(jsonPath("$[0].productId", is(11)))
+                .andExpect(jsonPath("$[1].productId", is(12)));
+    }
+}
@@ -1,15 +1,23 @@
 package com.example.inventory.repositories;
 
+import com.example.inventory.dto.BrandSummary;
+import com.example.inventory.dto.PriceBucketView;
+import com.example.inventory.dto.ProductQuantityView;
+import com.example.inventory.dto.ProductSummary;
 import com.example.inventory.models.Product;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
@@ -19,7 +27,7 @@ class ProductRepositoryTest {
     private ProductRepository productRepository;
 
     @Test
-    void testFindByNameContainingOrBrandContaining() {
+    void testSearch() {
         Product product1 = Product.builder()
                 .name("Macbook Pro")
                 .brand("Apple")
@@ -35,15 +43,64 @@ class ProductRepositoryTest {
         productRepository.save(product1);
         productRepository.save(product2);
 
-        List<Product> products = productRepository.findByNameContainingOrBrandContaining("Apple");
+        List<ProductSummary> products = productRepository.search("Apple", 0, 10);
         assertThat(products)
-                .hasSize(2).
-                containsExactly(product1, product2);
+                .hasSize(2)
+                .extracting(ProductSummary::id)
+                .containsExactly(product1.getId(), product2.getId());
 
-        products = productRepository.findByNameContainingOrBrandContaining("macbook");
+        products = productRepository.search("macbook", 0, 10);
         assertThat(products)
                 .hasSize(1)
-                .containsExactly(product1);
+                .extracting(ProductSummary::name)
+                .containsExactly("Macbook Pro");
+    }
+
+    @Test
+    void testSearchRanksPrefixMatchesFirst() {
+        Product product1 = Product.builder()
+                .name("Magic Keyboard for iPad")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(299.00))
+                .quantity(12).build();
+
+        Product product2 = Product.builder()
+                .name("iPad Air")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(599.00))
+                .quantity(30).build();
+
+        Product product3 = Product.builder()
+                .name("iPad")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(349.00))
+                .quantity(30).build();
+
+        productRepository.save(product1);
+        productRepository.save(product2);
+        productRepository.save(product3);
+
+        assertThat(productRepository.search("ipad", 0, 10))
+                .extracting(ProductSummary::id)
+                .containsExactly(product3.getId(), product2.getId(), product1.getId());
+        assertThat(productRepository.search("ipad", 1, 1))
+                .extracting(ProductSummary::id)
+                .containsExactly(product2.getId());
+    }
+
+    @Test
+    void testSearchEscapesWildcards() {
+        Product product = Product.builder()
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(120).build();
+
+        productRepository.save(product);
+
+        assertThat(productRepository.search("%", 0, 10)).isEmpty();
+        assertThat(productRepository.search("mac_ook", 0, 10)).isEmpty();
+        assertThat(productRepository.search("   ", 0, 10)).isEmpty();
     }
 
     @Test
@@ -149,4 +206,170 @@ class ProductRepositoryTest {
                 .hasSize(1)
                 .containsExactly(product2);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFindQuantityViewsByQuantityLessThan() {
+        productRepository.save(Product.builder()
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(120).build());
+        Product airpods = productRepository.save(Product.builder()
+                .name("Airpods 2")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(960.00))
+                .quantity(19).build());
+
+        assertThat(productRepository.findQuantityViewsByQuantityLessThan(20))
+                .extracting(ProductQuantityView::getId, ProductQuantityView::getBrand, ProductQuantityView::getQuantity)
+                .containsExactly(tuple(airpods.getId(), "Apple", 19));
+    }
+
+    @Test
+    public void testFindByIdGreaterThanOrderByIdAsc() {
+        Product product1 = productRepository.save(Product.builder()
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(120).build());
+
+        Product product2 = productRepository.save(Product.builder()
+                .name("Airpods 2")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(960.00))
+                .quantity(19).build());
+
+        Product product3 = productRepository.save(Product.builder()
+                .name("Galaxy S24")
+                .brand("Samsung")
+                .price(BigDecimal.valueOf(899.00))
+                .quantity(40).build());
+
+        List<Product> firstPage = productRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2));
+        assertThat(firstPage).containsExactly(product1, product2);
+
+        List<Product> secondPage = productRepository.findByIdGreaterThanOrderByIdAsc(product2.getId(), PageRequest.of(0, 2));
+        assertThat(secondPage).containsExactly(product3);
+    }
+
+    @Test
+    public void testStreamSummaries() {
+        Product product1 = productRepository.save(Product.builder()
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(120).build());
+
+        Product product2 = productRepository.save(Product.builder()
+                .name("Airpods 2")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(960.00))
+                .quantity(19).build());
+
+        try (Stream<ProductSummary> products = productRepository.streamSummaries()) {
+            assertThat(products)
+                    .extracting(ProductSummary::id)
+                    .containsExactly(product1.getId(), product2.getId());
+        }
+    }
+
+    @Test
+    public void testFindSummaries() {
+        Product product1 = productRepository.save(Product.builder()
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(3).build());
+
+        Product product2 = productRepository.save(Product.builder()
+                .name("Airpods 2")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(960.00))
+                .quantity(1).build());
+
+        Product product3 = productRepository.save(Product.builder()
+                .name("Galaxy S24")
+                .brand("Samsung")
+                .price(BigDecimal.valueOf(899.00))
+                .quantity(2).build());
+
+        assertThat(productRepository.findSummariesByIdGreaterThan(product1.getId(), PageRequest.of(0, 10)))
+                .containsExactly(
+                        new ProductSummary(product2.getId(), "Airpods 2", "Apple", new BigDecimal("960.00"), 1, 0L),
+                        new ProductSummary(product3.getId(), "Galaxy S24", "Samsung", new BigDecimal("899.00"), 2, 0L));
+
+        PageRequest byQuantity = PageRequest.of(0, 10, Sort.by("quantity", "id"));
+        assertThat(productRepository.findSummariesByQuantityLessThan(3, byQuantity))
+                .extracting(ProductSummary::id)
+                .containsExactly(product2.getId(), product3.getId());
+        assertThat(productRepository.findSummariesByBrandAndQuantityLessThan("Apple", 5, byQuantity))
+                .extracting(ProductSummary::id)
+                .containsExactly(product2.getId(), product1.getId());
+        assertThat(productRepository.findSummariesByIdIn(List.of(product1.getId(), product3.getId())))
+                .extracting(ProductSummary::name)
+                .containsExactlyInAnyOrder("Macbook Pro", "Galaxy S24");
+    }
+
+    @Test
+    public void testAdjustQuantity() {
+        Product product = productRepository.save(Product.builder()
+                .name("Airpods 2")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(960.00))
+                .quantity(5).build());
+
+        assertThat(productRepository.adjustQuantity(product.getId(), -3)).isEqualTo(1);
+        assertThat(productRepository.adjustQuantity(product.getId(), -3)).isEqualTo(0);
+        assertThat(productRepository.adjustQuantity(product.getId(), 10)).isEqualTo(1);
+
+        assertThat(productRepository.findById(product.getId()))
+                .get()
+                .extracting(Product::getQuantity)
+                .isEqualTo(12);
+    }
+
+    @Test
+    public void testVersionIsIncrementedOnUpdate() {
+        Product product = productRepository.saveAndFlush(Product.builder()
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(120).build());
+        assertThat(product.getVersion()).isEqualTo(0L);
+
+        product.setQuantity(118);
+        product = productRepository.saveAndFlush(product);
+        assertThat(product.getVersion()).isEqualTo(1L);
+
+        productRepository.adjustQuantity(product.getId(), -1);
+        assertThat(productRepository.findById(product.getId()))
+                .get()
+                .extracting(Product::getVersion)
+                .isEqualTo(2L);
+    }
+
+    @Test
+    void testBrandSummariesAndPriceBuckets() {
+        productRepository.save(Product.builder().name("Macbook Pro").brand("Apple").price(new BigDecimal("1099.00")).quantity(120).build());
+        productRepository.save(Product.builder().name("Airpods 2").brand("Apple").price(new BigDecimal("129.50")).quantity(2).build());
+        productRepository.save(Product.builder().name("Galaxy S24").brand("Samsung").price(new BigDecimal("899.00")).quantity(10).build());
+
+        assertThat(productRepository.summarizeByBrand(5))
+                .extracting(BrandSummary::brand, BrandSummary::products, BrandSummary::quantity, BrandSummary::lowStockProducts)
+                .containsExactlyInAnyOrder(
+                        tuple("Apple", 2L, 122L, 1L),
+                        tuple("Samsung", 1L, 10L, 0L));
+        assertThat(productRepository.summarizeByBrand(5))
+                .filteredOn(summary -> summary.brand().equals("Apple"))
+                .extracting(BrandSummary::inventoryValue)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("132139.00"));
+
+        assertThat(productRepository.findPriceBuckets(new BigDecimal("500")))
+                .extracting(PriceBucketView::getBucket, PriceBucketView::getProducts, PriceBucketView::getQuantity)
+                .containsExactly(tuple(0L, 1L, 2L), tuple(1L, 1L, 10L), tuple(2L, 1L, 120L));
+        assertThat(productRepository.findPriceBucketsByBrand(new BigDecimal("500"), "Apple"))
+                .extracting(PriceBucketView::getBucket)
+                .containsExactly(0L, 2L);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.inventory.services;
+
+import com.example.inventory.events.ProductChangedEvent;
+import com.example.inventory.models.Product;
+import com.example.inventory.repositories.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "inventory.availability.index.enabled=true")
+class AvailabilityIndexTest {
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void followsProductWrites() {
+        Product product = productService.saveProduct(Product.builder()
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(10).build());
+        assertThat(availabilityIndex.getQuantity(product.getId())).isEqualTo(10);
+
+        productService.adjustStock(product.getId(), -4);
+        assertThat(availabilityIndex.getQuantity(product.getId())).isEqualTo(6);
+
+        productService.deleteProduct(product.getId());
+        assertThat(availabilityIndex.getQuantity(product.getId())).isEqualTo(OffHeapStockTable.ABSENT);
+    }
+
+    @Test
+    void loadsExistingProducts() {
+        Product product = productRepository.save(Product.builder()
+                .name("Airpods 2")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(129.00))
+                .quantity(3).build());
+        assertThat(availabilityIndex.getQuantity(product.getId())).isEqualTo(OffHeapStockTable.ABSENT);
+
+        availabilityIndex.load();
+
+        assertThat(availabilityIndex.getQuantity(product.getId())).isEqualTo(3);
+    }
+
+    @Test
+    void adjustmentsReadByALoadAreNotAppliedAgain() {
+        Product product = productService.saveProduct(Product.builder()
+                .name("Airpods 2")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(129.00))
+                .quantity(10).build());
+        productService.adjustStock(product.getId(), -4);
+
+        // the adjustment's listener running late, after a load that already read its commit
+        availabilityIndex.load();
+        availabilityIndex.onProductChanged(ProductChangedEvent.stockAdjusted(product.getId(), -4));
+
+        assertThat(availabilityIndex.getQuantity(product.getId())).isEqualTo(6);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.inventory.services;
+
+import com.example.inventory.dto.BrandSummary;
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.events.ProductChangedEvent;
+import com.example.inventory.models.Product;
+import com.example.inventory.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInAotMode
+class BrandRollupTest {
+
+    @InjectMocks
+    private BrandRollup brandRollup;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(brandRollup, "lowStockThreshold", 5);
+        ReflectionTestUtils.setField(brandRollup, "maxAge", Duration.ofHours(1));
+        ReflectionTestUtils.setField(brandRollup, "maxPending", 100);
+        when(productRepository.summarizeByBrand(5)).thenReturn(List.of(
+                new BrandSummary("Apple", 2L, 13L, new BigDecimal("130"), 1L),
+                new BrandSummary("Sony", 1L, 4L, new BigDecimal("40"), 1L)));
+        brandRollup.getSummaries();
+    }
+
+    @Test
+    void onProductSavedAndDeleted() {
+        brandRollup.onProductChanged(ProductChangedEvent.saved(product(3L, "Sony", 6, 1L), product(3L, "Sony", 4, 0L)));
+        brandRollup.onProductChanged(ProductChangedEvent.saved(product(4L, "Samsung", 2, 0L)));
+        brandRollup.onProductChanged(ProductChangedEvent.deleted(2L, product(2L, "Apple", 3, 0L)));
+
+        assertThat(brandRollup.getSummaries()).containsExactly(
+                new BrandSummary("Apple", 1L, 10L, new BigDecimal("100"), 0L),
+                new BrandSummary("Samsung", 1L, 2L, new BigDecimal("20"), 1L),
+                new BrandSummary("Sony", 1L, 6L, new BigDecimal("60"), 0L));
+        verify(productRepository, times(1)).summarizeByBrand(5);
+    }
+
+    @Test
+    void reloadDoesNotBlockChangeListeners() {
+        brandRollup.invalidate();
+        when(productRepository.summarizeByBrand(5)).thenAnswer(invocation -> {
+            Thread listener = new Thread(() -> brandRollup.onProductChanged(ProductChangedEvent.saved(product(4L, "Samsung", 2, 0L))));
+            listener.start();
+            listener.join(5000);
+            assertThat(listener.isAlive()).isFalse();
+            return List.of(new BrandSummary("Apple", 2L, 13L, new BigDecimal("130"), 1L));
+        });
+
+        assertThat(brandRollup.getSummaries()).extracting(BrandSummary::brand).containsExactly("Apple");
+    }
+
+    @Test
+    void stockAdjustmentsAreAppliedOnRead() {
+        brandRollup.onProductChanged(ProductChangedEvent.stockAdjusted(3L, -2, 2));
+        brandRollup.onProductChanged(ProductChangedEvent.stockAdjusted(3L, -1, 1));
+        verify(productRepository, never()).findSummariesByIdIn(any());
+
+        when(productRepository.findSummariesByIdIn(List.of(3L))).thenReturn(List.of(
+                new ProductSummary(3L, "Product 3", "Sony", BigDecimal.TEN, 1, 2L)));
+
+        assertThat(brandRollup.getSummaries()).contains(new BrandSummary("Sony", 1L, 1L, new BigDecimal("10"), 1L));
+    }
+
+    @Test
+    void adjustmentsOfOneProductAreAppliedFromTheirEvents() {
+        // 4 -> 2 -> 7, delivered out of order; a third adjustment to 9 committed but its listener hasn't run
+        brandRollup.onProductChanged(ProductChangedEvent.stockAdjusted(3L, 5, 7));
+        brandRollup.onProductChanged(ProductChangedEvent.stockAdjusted(3L, -2, 2));
+
+        when(productRepository.findSummariesByIdIn(List.of(3L))).thenReturn(List.of(
+                new ProductSummary(3L, "Product 3", "Sony", BigDecimal.TEN, 9, 3L)));
+
+        assertThat(brandRollup.getSummaries()).contains(new BrandSummary("Sony", 1L, 7L, new BigDecimal("70"), 0L));
+    }
+
+    @Test
+    void adjustmentThenSaveCountsTheSavedQuantityOnce() {
+        brandRollup.onProductChanged(ProductChangedEvent.stockAdjusted(3L, 3, 7));
+        brandRollup.onProductChanged(ProductChangedEvent.saved(product(3L, "Sony", 8, 2L), product(3L, "Sony", 7, 1L)));
+
+        assertThat(brandRollup.getSummaries()).contains(new BrandSummary("Sony", 1L, 8L, new BigDecimal("80"), 0L));
+        verify(productRepository, never()).findSummariesByIdIn(any());
+    }
+
+    @Test
+    void adjustmentWithoutQuantityReloads() {
+        brandRollup.onProductChanged(ProductChangedEvent.stockAdjusted(3L, -1));
+
+        brandRollup.getSummaries();
+
+        verify(productRepository, times(2)).summarizeByBrand(5);
+    }
+
+    @Test
+    void updateWithoutPreviousStateReloads() {
+        brandRollup.onProductChanged(ProductChangedEvent.saved(product(1L, "Apple", 20, 3L)));
+
+        brandRollup.getSummaries();
+
+        verify(productRepository, times(2)).summarizeByBrand(5);
+    }
+
+    private static Product product(Long id, String brand, int quantity, Long version) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .brand(brand)
+                .price(BigDecimal.TEN)
+                .quantity(quantity)
+                .version(version).build();
+    }
+}
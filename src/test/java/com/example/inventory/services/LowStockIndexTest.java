@@ -0,0 +1,160 @@
+package com.example.inventory.services;
+
+import com.example.inventory.dto.ProductQuantityView;
+import com.example.inventory.events.ProductChangedEvent;
+import com.example.inventory.models.Product;
+import com.example.inventory.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInAotMode
+class LowStockIndexTest {
+
+    @InjectMocks
+    private LowStockIndex lowStockIndex;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(lowStockIndex, "maxThreshold", 10);
+        List<ProductQuantityView> views = List.of(view(1L, "Apple", 3, 0), view(2L, "Samsung", 1, 0), view(3L, "Apple", 7, 0));
+        when(productRepository.findQuantityViewsByQuantityLessThan(10)).thenReturn(views);
+        lowStockIndex.load();
+    }
+
+    @Test
+    void findProductIds() {
+        assertThat(lowStockIndex.covers(10)).isTrue();
+        assertThat(lowStockIndex.covers(11)).isFalse();
+
+        assertThat(lowStockIndex.findProductIds(null, 10, 0, 10)).containsExactly(2L, 1L, 3L);
+        assertThat(lowStockIndex.findProductIds(null, 5, 0, 10)).containsExactly(2L, 1L);
+        assertThat(lowStockIndex.findProductIds(null, 10, 1, 1)).containsExactly(1L);
+        assertThat(lowStockIndex.findProductIds("Apple", 10, 0, 10)).containsExactly(1L, 3L);
+        assertThat(lowStockIndex.findProductIds("Sony", 10, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void reloadKeepsServingTheOldIndexUntilTheNewOneIsLoaded() {
+        List<ProductQuantityView> views = List.of(view(4L, "Sony", 2, 0));
+        when(productRepository.findQuantityViewsByQuantityLessThan(10)).thenAnswer(invocation -> {
+            assertThat(lowStockIndex.findProductIds(null, 10, 0, 10)).containsExactly(2L, 1L, 3L);
+            return views;
+        });
+
+        lowStockIndex.reload();
+
+        assertThat(lowStockIndex.findProductIds(null, 10, 0, 10)).containsExactly(4L);
+        assertThat(lowStockIndex.findProductIds("Apple", 10, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void onProductSavedAndDeleted() {
+        ProductQuantityView apple = view(1L, "Apple", 50, 1);
+        ProductQuantityView sony = view(4L, "Sony", 0, 0);
+        when(productRepository.findQuantityViewById(1L)).thenReturn(Optional.of(apple));
+        when(productRepository.findQuantityViewById(4L)).thenReturn(Optional.of(sony));
+
+        lowStockIndex.onProductChanged(ProductChangedEvent.saved(product(1L, "Apple", 50)));
+        lowStockIndex.onProductChanged(ProductChangedEvent.saved(product(4L, "Sony", 0)));
+        lowStockIndex.onProductChanged(ProductChangedEvent.deleted(2L));
+
+        assertThat(lowStockIndex.findProductIds(null, 10, 0, 10)).containsExactly(4L, 3L);
+        assertThat(lowStockIndex.findProductIds("Apple", 10, 0, 10)).containsExactly(3L);
+        assertThat(lowStockIndex.findProductIds("Samsung", 10, 0, 10)).isEmpty();
+        assertThat(brands()).containsOnlyKeys("Apple", "Sony");
+    }
+
+    @Test
+    void onStockAdjusted() {
+        ProductQuantityView apple = view(3L, "Apple", 0, 1);
+        ProductQuantityView sony = view(4L, "Sony", 2, 1);
+        when(productRepository.findQuantityViewById(3L)).thenReturn(Optional.of(apple));
+        when(productRepository.findQuantityViewById(4L)).thenReturn(Optional.of(sony));
+        when(productRepository.findQuantityViewById(5L)).thenReturn(Optional.empty());
+
+        lowStockIndex.onProductChanged(ProductChangedEvent.stockAdjusted(3L, -7));
+        lowStockIndex.onProductChanged(ProductChangedEvent.stockAdjusted(4L, -8));
+        lowStockIndex.onProductChanged(ProductChangedEvent.stockAdjusted(5L, 8));
+
+        assertThat(lowStockIndex.findProductIds(null, 10, 0, 10)).containsExactly(3L, 2L, 4L, 1L);
+    }
+
+    @Test
+    void eventsDeliveredOutOfCommitOrderKeepTheCommittedQuantity() {
+        // the adjustment to 2 committed after a save to 8, but its listener ran first
+        ProductQuantityView committed = view(1L, "Apple", 2, 2);
+        when(productRepository.findQuantityViewById(1L)).thenReturn(Optional.of(committed));
+
+        lowStockIndex.onProductChanged(ProductChangedEvent.stockAdjusted(1L, -6));
+        lowStockIndex.onProductChanged(ProductChangedEvent.saved(product(1L, "Apple", 8)));
+
+        assertThat(lowStockIndex.findProductIds(null, 10, 0, 10)).containsExactly(2L, 1L, 3L);
+        assertThat(lowStockIndex.findProductIds(null, 3, 0, 10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void staleReadsAreNotAppliedOverNewerOnes() {
+        // the listener of the save to 8 read its row before the adjustment to 2 committed, but applied it last
+        ProductQuantityView adjusted = view(1L, "Apple", 2, 2);
+        ProductQuantityView saved = view(1L, "Apple", 8, 1);
+        when(productRepository.findQuantityViewById(1L)).thenReturn(Optional.of(adjusted), Optional.of(saved));
+
+        lowStockIndex.onProductChanged(ProductChangedEvent.stockAdjusted(1L, -6));
+        lowStockIndex.onProductChanged(ProductChangedEvent.saved(product(1L, "Apple", 8)));
+
+        assertThat(lowStockIndex.findProductIds(null, 3, 0, 10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void staleReadsDoNotBringBackDeletedProducts() {
+        ProductQuantityView beforeDelete = view(2L, "Samsung", 1, 1);
+        when(productRepository.findQuantityViewById(2L)).thenReturn(Optional.of(beforeDelete));
+
+        lowStockIndex.onProductChanged(ProductChangedEvent.deleted(2L));
+        lowStockIndex.onProductChanged(ProductChangedEvent.stockAdjusted(2L, -1));
+
+        assertThat(lowStockIndex.findProductIds(null, 10, 0, 10)).containsExactly(1L, 3L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> brands() {
+        Object index = ReflectionTestUtils.getField(lowStockIndex, "index");
+        return (Map<String, ?>) ReflectionTestUtils.getField(index, "entriesByBrand");
+    }
+
+    private static ProductQuantityView view(Long id, String brand, int quantity, long version) {
+        ProductQuantityView view = mock(ProductQuantityView.class);
+        lenient().when(view.getId()).thenReturn(id);
+        lenient().when(view.getBrand()).thenReturn(brand);
+        lenient().when(view.getQuantity()).thenReturn(quantity);
+        lenient().when(view.getVersion()).thenReturn(version);
+        return view;
+    }
+
+    private static Product product(Long id, String brand, int quantity) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .brand(brand)
+                .price(BigDecimal.TEN)
+                .quantity(quantity).build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.inventory.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OffHeapStockTableTest {
+
+    @Test
+    void putAndRemove() {
+        OffHeapStockTable table = new OffHeapStockTable(4);
+
+        table.put(1L, 5);
+        table.put(2L, 0);
+        table.put(1L, 7);
+
+        assertThat(table.get(1L)).isEqualTo(7);
+        assertThat(table.get(2L)).isZero();
+        assertThat(table.get(3L)).isEqualTo(OffHeapStockTable.ABSENT);
+        assertThat(table.size()).isEqualTo(2);
+
+        table.remove(1L);
+        assertThat(table.get(1L)).isEqualTo(OffHeapStockTable.ABSENT);
+        assertThat(table.get(2L)).isZero();
+        table.put(1L, 9);
+        assertThat(table.get(1L)).isEqualTo(9);
+        assertThat(table.size()).isEqualTo(2);
+
+        // the empty and removed slot markers
+        assertThat(table.get(0L)).isEqualTo(OffHeapStockTable.ABSENT);
+        assertThat(table.get(-1L)).isEqualTo(OffHeapStockTable.ABSENT);
+    }
+
+    @Test
+    void growsPastTheExpectedSize() {
+        OffHeapStockTable table = new OffHeapStockTable(16);
+
+        for (long id = 1; id <= 100_000; id++) {
+            table.put(id, (int) (id % 100));
+        }
+        for (long id = 1; id <= 100_000; id += 2) {
+            table.remove(id);
+        }
+
+        assertThat(table.size()).isEqualTo(50_000);
+        assertThat(table.get(99_999L)).isEqualTo(OffHeapStockTable.ABSENT);
+        assertThat(table.get(100_000L)).isZero();
+        assertThat(table.get(12_345_678L)).isEqualTo(OffHeapStockTable.ABSENT);
+        for (long id = 2; id <= 100_000; id += 2) {
+            assertThat(table.get(id)).isEqualTo((int) (id % 100));
+        }
+    }
+
+    @Test
+    void rejectsReservedIds() {
+        OffHeapStockTable table = new OffHeapStockTable(16);
+
+        assertThatThrownBy(() -> table.put(0L, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> table.put(-1L, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.inventory.services;
+
+import com.example.inventory.dto.BulkItemResult;
+import com.example.inventory.models.Product;
+import com.example.inventory.models.StockLevel;
+import com.example.inventory.repositories.ProductRepository;
+import com.example.inventory.repositories.StockLevelRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "inventory.products.bulk.chunk-size=2")
+class ProductBulkServiceTest {
+
+    @Autowired
+    private ProductBulkService productBulkService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLevelRepository stockLevelRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @AfterEach
+    void cleanUp() {
+        stockLevelRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void upsertProducts() {
+        Product existingProduct = productRepository.save(Product.builder()
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(120).build());
+
+        Product update = Product.builder()
+                .id(existingProduct.getId())
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(999.00))
+                .quantity(80).build();
+
+        Product newProduct = Product.builder()
+                .name("Airpods 2")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(960.00))
+                .quantity(23).build();
+
+        Product invalidProduct = Product.builder()
+                .name("")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(-1.00))
+                .quantity(1).build();
+
+        Product unknownProduct = Product.builder()
+                .id(existingProduct.getId() + 1000)
+                .name("Galaxy S24")
+                .brand("Samsung")
+                .price(BigDecimal.valueOf(899.00))
+                .quantity(40).build();
+
+        List<BulkItemResult> results = productBulkService.upsertProducts(
+                List.of(update, newProduct, invalidProduct, unknownProduct).iterator());
+
+        assertThat(results).extracting(BulkItemResult::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(results).extracting(BulkItemResult::getStatus).containsExactly(
+                BulkItemResult.Status.UPDATED,
+                BulkItemResult.Status.CREATED,
+                BulkItemResult.Status.INVALID,
+                BulkItemResult.Status.NOT_FOUND);
+        assertThat(results.get(1).getId()).isNotNull();
+        assertThat(results.get(2).getErrors())
+                .containsEntry("name", "Product Name should be set")
+                .containsEntry("price", "Price can't have a negative value");
+
+        assertThat(productRepository.findById(existingProduct.getId()))
+                .get()
+                .extracting(Product::getQuantity)
+                .isEqualTo(80);
+        assertThat(productRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void upsertKeepsQuantityAboveOtherLocations() {
+        Product existingProduct = productRepository.save(Product.builder()
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(0).build());
+        stockService.adjustStock(existingProduct.getId(), "berlin", 10);
+
+        List<BulkItemResult> results = productBulkService.upsertProducts(List.of(
+                existingProduct.toBuilder().quantity(4).version(null).build(),
+                existingProduct.toBuilder().quantity(15).version(null).build()).iterator());
+
+        assertThat(results).extracting(BulkItemResult::getStatus).containsExactly(
+                BulkItemResult.Status.CONFLICT,
+                BulkItemResult.Status.UPDATED);
+        assertThat(stockLevelRepository.findByProductIdOrderByLocation(existingProduct.getId()))
+                .extracting(StockLevel::getLocation, StockLevel::getQuantity)
+                .containsExactly(tuple("berlin", 10), tuple("default", 5));
+        assertThat(stockLevelRepository.findUnbalancedProductIds()).isEmpty();
+    }
+}
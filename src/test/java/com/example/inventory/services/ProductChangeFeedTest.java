@@ -0,0 +1,80 @@
+package com.example.inventory.services;
+
+import com.example.inventory.events.ProductChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductChangeFeedTest {
+
+    private ProductChangeFeed productChangeFeed;
+
+    @BeforeEach
+    void setUp() {
+        productChangeFeed = new ProductChangeFeed();
+        ReflectionTestUtils.setField(productChangeFeed, "bufferSize", 3);
+        ReflectionTestUtils.setField(productChangeFeed, "dispatcherThreads", 1);
+        productChangeFeed.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productChangeFeed.shutdown();
+    }
+
+    @Test
+    void readAfterReturnsEventsInSequence() {
+        productChangeFeed.append(ProductChangedEvent.deleted(1L));
+        productChangeFeed.append(ProductChangedEvent.stockAdjusted(2L, -3));
+
+        assertThat(productChangeFeed.lastSequence()).isEqualTo(2L);
+        assertThat(productChangeFeed.readAfter(0, 10))
+                .extracting(ProductChangeFeed.FeedEvent::sequence)
+                .containsExactly(1L, 2L);
+        assertThat(productChangeFeed.readAfter(1, 10))
+                .extracting(event -> event.event().productId())
+                .containsExactly(2L);
+        assertThat(productChangeFeed.readAfter(0, 1)).hasSize(1);
+        assertThat(productChangeFeed.readAfter(2, 10)).isEmpty();
+    }
+
+    @Test
+    void readAfterOverwrittenSequenceRequiresReset() {
+        for (long id = 1; id <= 5; id++) {
+            productChangeFeed.append(ProductChangedEvent.deleted(id));
+        }
+
+        assertThat(productChangeFeed.readAfter(0, 10)).isNull();
+        assertThat(productChangeFeed.readAfter(1, 10)).isNull();
+        assertThat(productChangeFeed.readAfter(2, 10))
+                .extracting(ProductChangeFeed.FeedEvent::sequence)
+                .containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void readAfterUnknownSequenceRequiresReset() {
+        productChangeFeed.append(ProductChangedEvent.deleted(1L));
+
+        // a Last-Event-ID issued before a restart, or by another instance
+        assertThat(productChangeFeed.readAfter(1, 10)).isEmpty();
+        assertThat(productChangeFeed.readAfter(2, 10)).isNull();
+        assertThat(productChangeFeed.readAfter(500, 10)).isNull();
+    }
+
+    @Test
+    void resetRequiresResetOfCaughtUpSubscribers() {
+        productChangeFeed.append(ProductChangedEvent.deleted(1L));
+
+        productChangeFeed.reset();
+        productChangeFeed.append(ProductChangedEvent.deleted(2L));
+
+        assertThat(productChangeFeed.readAfter(0, 10)).isNull();
+        assertThat(productChangeFeed.readAfter(1, 10)).isNull();
+        assertThat(productChangeFeed.readAfter(2, 10))
+                .extracting(ProductChangeFeed.FeedEvent::sequence)
+                .containsExactly(3L);
+    }
+}
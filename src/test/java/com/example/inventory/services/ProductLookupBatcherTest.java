@@ -0,0 +1,80 @@
+package com.example.inventory.services;
+
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.models.Product;
+import com.example.inventory.repositories.ProductRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The long max-wait makes sure lookups started together land in the same batch.
+@SpringBootTest(properties = {
+        "inventory.products.batching.enabled=true",
+        "inventory.products.batching.max-wait=500ms"
+})
+class ProductLookupBatcherTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAll();
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).clear();
+    }
+
+    @Test
+    void concurrentLookupsShareOneQuery() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            products.add(productRepository.save(Product.builder()
+                    .name("Product " + i)
+                    .brand("Apple")
+                    .price(BigDecimal.valueOf(100.00))
+                    .quantity(10).build()));
+        }
+        DistributionSummary batchSize = meterRegistry.get("inventory.products.lookup.batch.size").summary();
+        long batchesBefore = batchSize.count();
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<CompletableFuture<Optional<Product>>> lookups = new ArrayList<>();
+            products.forEach(product -> lookups.add(
+                    CompletableFuture.supplyAsync(() -> productService.getProductById(product.getId()), executor)));
+            lookups.add(CompletableFuture.supplyAsync(() -> productService.getProductById(-1L), executor));
+
+            for (int i = 0; i < products.size(); i++) {
+                assertThat(lookups.get(i).join()).get().extracting(Product::getName).isEqualTo("Product " + i);
+            }
+            assertThat(lookups.get(products.size()).join()).isEmpty();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(batchSize.count() - batchesBefore).isLessThan(6);
+        assertThat(batchSize.max()).isGreaterThan(1);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.inventory.services;
+
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.models.Product;
+import com.example.inventory.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.aot.DisabledInAotMode;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@DisabledInAotMode
+class ProductServiceCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void clearCache() {
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).clear();
+    }
+
+    @Test
+    void getProductByIdIsCached() {
+        Product product = Product.builder()
+                .id(1L)
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(120).build();
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        assertThat(productService.getProductById(1L)).contains(product);
+        assertThat(productService.getProductById(1L)).contains(product);
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void missingProductIsNotCached() {
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThat(productService.getProductById(1L)).isEmpty();
+        assertThat(productService.getProductById(1L)).isEmpty();
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void saveProductRefreshesCachedEntry() {
+        Product product = Product.builder()
+                .id(1L)
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(120).build();
+        Product updatedProduct = Product.builder()
+                .id(1L)
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(100).build();
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.save(updatedProduct)).thenReturn(updatedProduct);
+
+        productService.getProductById(1L);
+        productService.saveProduct(updatedProduct);
+
+        // the second lookup is saveProduct reading the previous state, the last read is a cache hit
+        assertThat(productService.getProductById(1L)).contains(updatedProduct);
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void deleteProductEvictsCachedEntry() {
+        Product product = Product.builder()
+                .id(1L)
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(120).build();
+
+        when(productRepository.findById(1L))
+                .thenReturn(Optional.of(product))
+                .thenReturn(Optional.of(product))
+                .thenReturn(Optional.empty());
+
+        productService.getProductById(1L);
+        productService.deleteProduct(1L);
+
+        assertThat(productService.getProductById(1L)).isEmpty();
+        verify(productRepository, times(3)).findById(1L);
+    }
+}
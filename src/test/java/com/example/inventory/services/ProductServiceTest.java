@@ -1,21 +1,41 @@
 package com.example.inventory.services;
 
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.dto.PriceBucket;
+import com.example.inventory.dto.PriceBucketView;
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.dto.StockAdjustment;
+import com.example.inventory.events.ProductChangedEvent;
+import com.example.inventory.exception.InsufficientStockException;
 import com.example.inventory.models.Product;
 import com.example.inventory.repositories   .ProductRepository;
+import com.example.inventory.repositories.StockLevelRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.aot.DisabledInAotMode;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
+@DisabledInAotMode
 class ProductServiceTest {
 
     @InjectMocks
@@ -24,27 +44,72 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private StockLevelRepository stockLevelRepository;
+
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    @Mock
+    private BrandRollup brandRollup;
+
     @Test
     void saveProduct() {
-        Product product = new Product();
+        Product product = Product.builder().name("Product 1").quantity(5).build();
 
-        when(productRepository.save(product)).thenReturn(product);
+        when(productRepository.save(product)).thenReturn(product.toBuilder().id(1L).build());
 
         Product savedProduct = productService.saveProduct(product);
         assertThat(savedProduct).isNotNull();
+        verify(stockService).syncDefaultLocations(List.of(1L));
     }
 
     @Test
-    void getAllProducts() {
-        Product product1 = new Product();
-        Product product2 = new Product();
+    void saveProductBelowOtherLocationsStock() {
+        Product product = Product.builder().id(1L).name("Product 1").quantity(2).build();
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product.toBuilder().quantity(10).build()));
+        when(productRepository.save(product)).thenReturn(product);
+        when(stockService.syncDefaultLocations(List.of(1L))).thenReturn(List.of(1L));
 
-        when(productRepository.findAll()).thenReturn(Arrays.asList(product1, product2));
+        assertThatThrownBy(() -> productService.saveProduct(product))
+                .isInstanceOf(InsufficientStockException.class);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
 
-        List<Product> products = productService.getAllProducts();
+    @Test
+    void getProducts() {
+        ProductSummary product1 = summary(1L, 10);
+        ProductSummary product2 = summary(2L, 20);
+
+        when(productRepository.findSummariesByIdGreaterThan(0L, PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(product1, product2));
+
+        List<ProductSummary> products = productService.getProducts(null, 2);
         assertThat(products).hasSize(2);
     }
 
+    @Test
+    void streamProducts() {
+        ProductSummary product1 = summary(1L, 10);
+        ProductSummary product2 = summary(2L, 20);
+
+        when(productRepository.streamSummaries()).thenReturn(Stream.of(product1, product2));
+
+        List<ProductSummary> streamed = new ArrayList<>();
+        productService.streamProducts(streamed::add);
+        assertThat(streamed).containsExactly(product1, product2);
+    }
+
     @Test
     void getProductById() {
         Product product = new Product();
@@ -55,38 +120,138 @@ class ProductServiceTest {
         assertThat(foundProduct).isPresent();
     }
 
+    @Test
+    void getProductsByIdsQueriesOnlyCacheMisses() {
+        Cache cache = mock(Cache.class);
+        Product cached = Product.builder().id(1L).name("Macbook Pro").build();
+        Product loaded = Product.builder().id(3L).name("Airpods 2").build();
+
+        when(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).thenReturn(cache);
+        when(cache.get(anyLong(), eq(Product.class))).thenReturn(null);
+        when(cache.get(1L, Product.class)).thenReturn(cached);
+        when(productRepository.findAllById(List.of(3L, 4L))).thenReturn(List.of(loaded));
+
+        assertThat(productService.getProductsByIds(List.of(3L, 1L, 4L, 3L))).containsExactly(loaded, cached);
+        verify(cache).put(3L, loaded);
+    }
+
     @Test
     void deleteProduct() {
         productService.deleteProduct(1L);
+        verify(stockLevelRepository).deleteByProductId(1L);
         verify(productRepository, times(1)).deleteById(1L);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.deleted(1L));
     }
 
     @Test
-    void searchProducts() {
-        Product product1 = new Product();
-        product1.setName("Product1");
+    void saveProductPublishesPreviousState() {
+        Product existing = Product.builder().id(1L).name("Macbook Pro").brand("Apple").quantity(3).version(2L).build();
+        Product product = Product.builder().id(1L).name("Macbook Pro").brand("Apple").quantity(8).version(2L).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(productRepository.save(product)).thenReturn(product);
 
-        Product product2 = new Product();
-        product2.setName("Product2");
+        productService.saveProduct(product);
 
-        when(productRepository.findByNameContainingOrBrandContaining("Product"))
+        verify(eventPublisher).publishEvent(ProductChangedEvent.saved(product, existing));
+    }
+
+    @Test
+    void getPriceBuckets() {
+        PriceBucketView bucket = mock(PriceBucketView.class);
+        when(bucket.getBucket()).thenReturn(2L);
+        when(bucket.getProducts()).thenReturn(4L);
+        when(bucket.getQuantity()).thenReturn(40L);
+        when(productRepository.findPriceBucketsByBrand(BigDecimal.TEN, "Apple")).thenReturn(List.of(bucket));
+
+        assertThat(productService.getPriceBuckets(BigDecimal.TEN, "Apple"))
+                .containsExactly(new PriceBucket(new BigDecimal("20"), new BigDecimal("30"), 4L, 40L));
+    }
+
+    @Test
+    void searchProducts() {
+        ProductSummary product1 = summary(1L, 10);
+        ProductSummary product2 = summary(2L, 20);
+
+        when(productRepository.search("Product", 20, 10))
                 .thenReturn(Arrays.asList(product1, product2));
 
-        List<Product> products = productService.searchProducts("Product");
+        List<ProductSummary> products = productService.searchProducts("Product", 2, 10);
         assertThat(products).hasSize(2);
     }
 
+    @Test
+    void pagesPastTheLastRowAreNotQueried() {
+        assertThat(productService.searchProducts("Product", Integer.MAX_VALUE, 10)).isEmpty();
+        assertThat(productService.getLeftoverProducts(null, null, Integer.MAX_VALUE, 10)).isEmpty();
+
+        verifyNoInteractions(productRepository, lowStockIndex);
+    }
+
     @Test
     void getLeftoverProducts() {
-        Product product1 = new Product();
-        product1.setQuantity(3);
+        ProductSummary product1 = summary(1L, 3);
+        ProductSummary product2 = summary(2L, 1);
+
+        when(lowStockIndex.covers(5)).thenReturn(true);
+        when(lowStockIndex.findProductIds(null, 5, 0, 10)).thenReturn(List.of(2L, 1L));
+        when(productRepository.findSummariesByIdIn(List.of(2L, 1L))).thenReturn(List.of(product1, product2));
+
+        List<ProductSummary> leftoverProducts = productService.getLeftoverProducts(5, null, 0, 10);
+        assertThat(leftoverProducts).containsExactly(product2, product1);
+    }
 
-        Product product2 = new Product();
-        product2.setQuantity(5);
+    @Test
+    void getLeftoverProductsAboveIndexThreshold() {
+        ProductSummary product = summary(1L, 300);
+
+        when(lowStockIndex.covers(500)).thenReturn(false);
+        when(productRepository.findSummariesByBrandAndQuantityLessThan("Apple", 500, PageRequest.of(1, 10, Sort.by("quantity", "id"))))
+                .thenReturn(List.of(product));
+
+        List<ProductSummary> leftoverProducts = productService.getLeftoverProducts(500, "Apple", 1, 10);
+        assertThat(leftoverProducts).containsExactly(product);
+    }
+
+    @Test
+    void adjustStockGoesThroughDefaultLocation() {
+        when(stockService.getDefaultLocation()).thenReturn("default");
+
+        productService.adjustStock(1L, -3);
+        verify(stockService).adjustStock(1L, "default", -3);
+        verifyNoInteractions(productRepository);
+    }
 
-        when(productRepository.findByQuantityLessThan(5)).thenReturn(List.of(product1));
+    @Test
+    void adjustStockBatchMergesDeltasPerProduct() {
+        when(stockService.getDefaultLocation()).thenReturn("default");
+        when(stockService.apply(1L, "default", -3)).thenReturn(true);
+        when(stockService.apply(2L, "default", -1)).thenReturn(true);
+
+        productService.adjustStock(List.of(
+                StockAdjustment.builder().productId(2L).delta(-1).build(),
+                StockAdjustment.builder().productId(1L).delta(-1).build(),
+                StockAdjustment.builder().productId(1L).delta(-2).build()));
+
+        InOrder inOrder = inOrder(stockService);
+        inOrder.verify(stockService).apply(1L, "default", -3);
+        inOrder.verify(stockService).apply(2L, "default", -1);
+    }
+
+    @Test
+    void adjustStockBatchInsufficient() {
+        when(stockService.getDefaultLocation()).thenReturn("default");
+        when(stockService.apply(1L, "default", -3)).thenReturn(true);
+        when(stockService.apply(2L, "default", -1)).thenReturn(false);
+
+        assertThatThrownBy(() -> productService.adjustStock(List.of(
+                StockAdjustment.builder().productId(1L).delta(-3).build(),
+                StockAdjustment.builder().productId(2L).delta(-1).build())))
+                .isInstanceOf(InsufficientStockException.class)
+                .extracting("productIds")
+                .isEqualTo(List.of(2L));
+    }
 
-        List<Product> leftoverProducts = productService.getLeftoverProducts();
-        assertThat(leftoverProducts).hasSize(1).containsExactly(product1);
+    private static ProductSummary summary(Long id, int quantity) {
+        return new ProductSummary(id, "Product" + id, "Brand", BigDecimal.TEN, quantity, 0L);
     }
 }
@@ -0,0 +1,138 @@
+package com.example.inventory.services;
+
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.dto.ProductSummary;
+import com.example.inventory.dto.SnapshotSummary;
+import com.example.inventory.dto.SnapshotVerification;
+import com.example.inventory.exception.SnapshotNotFoundException;
+import com.example.inventory.models.Product;
+import com.example.inventory.repositories.ProductRepository;
+import com.example.inventory.repositories.StockLevelRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+// H2 exercises the cursor export and batched import, COPY is only used against PostgreSQL.
+@SpringBootTest(properties = {
+        "inventory.snapshots.batch-size=2",
+        "inventory.snapshots.chunk-size=2"
+})
+class ProductSnapshotServiceTest {
+
+    @TempDir
+    static Path snapshotDirectory;
+
+    @Autowired
+    private ProductSnapshotService productSnapshotService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLevelRepository stockLevelRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @DynamicPropertySource
+    static void snapshotDirectory(DynamicPropertyRegistry registry) {
+        registry.add("inventory.snapshots.directory", snapshotDirectory::toString);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        stockLevelRepository.deleteAll();
+        productRepository.deleteAll();
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).clear();
+    }
+
+    @Test
+    void exportedSnapshotIsVerifiedAndImportedBack() {
+        List<Product> products = productRepository.saveAll(List.of(
+                product("Tee, \"classic\"", "Acme", 5),
+                product("Hoodie", "Acme", 7),
+                product("Cap", "Acme\nOutlet", 11)));
+
+        SnapshotSummary snapshot = productSnapshotService.export();
+        assertThat(snapshot.rows()).isEqualTo(3);
+
+        SnapshotVerification verification = productSnapshotService.verify(snapshot.name());
+        assertThat(verification.rows()).isEqualTo(3);
+        assertThat(verification.totalQuantity()).isEqualTo(23);
+        assertThat(verification.ordered()).isTrue();
+        assertThat(verification.minId()).isEqualTo(products.get(0).getId());
+        assertThat(verification.maxId()).isEqualTo(products.get(2).getId());
+
+        Product changed = productRepository.findById(products.get(1).getId()).orElseThrow();
+        changed.setQuantity(0);
+        productRepository.save(changed);
+        productRepository.deleteById(products.get(0).getId());
+
+        SnapshotSummary imported = productSnapshotService.importSnapshot(snapshot.name());
+
+        assertThat(imported.rows()).isEqualTo(3);
+        assertThat(productRepository.findById(products.get(0).getId()))
+                .get()
+                .extracting(Product::getName)
+                .isEqualTo("Tee, \"classic\"");
+        assertThat(productRepository.findById(products.get(1).getId()))
+                .get()
+                .extracting(Product::getQuantity)
+                .isEqualTo(7);
+        assertThat(productRepository.findById(products.get(2).getId()))
+                .get()
+                .extracting(Product::getBrand)
+                .isEqualTo("Acme\nOutlet");
+    }
+
+    @Test
+    void importedQuantitiesAreServedFromTheCacheAndIndexes() {
+        Product product = productService.saveProduct(product("Hoodie", "Acme", 2));
+        SnapshotSummary snapshot = productSnapshotService.export();
+
+        product.setQuantity(50);
+        productService.saveProduct(product);
+        assertThat(productService.getProductById(product.getId())).get().extracting(Product::getQuantity).isEqualTo(50);
+        assertThat(productService.getLeftoverProducts(5, null, 0, 10)).isEmpty();
+
+        productSnapshotService.importSnapshot(snapshot.name());
+
+        assertThat(productService.getProductById(product.getId())).get().extracting(Product::getQuantity).isEqualTo(2);
+        assertThat(productService.getLeftoverProducts(5, null, 0, 10))
+                .extracting(ProductSummary::id, ProductSummary::quantity)
+                .containsExactly(tuple(product.getId(), 2));
+    }
+
+    @Test
+    void unknownSnapshotNamesAreRejected() {
+        assertThatThrownBy(() -> productSnapshotService.verify("../application.properties"))
+                .isInstanceOf(SnapshotNotFoundException.class);
+        assertThatThrownBy(() -> productSnapshotService.importSnapshot("missing.csv"))
+                .isInstanceOf(SnapshotNotFoundException.class);
+    }
+
+    private static Product product(String name, String brand, int quantity) {
+        return Product.builder()
+                .name(name)
+                .brand(brand)
+                .price(new BigDecimal("9.99"))
+                .quantity(quantity)
+                .build();
+    }
+}
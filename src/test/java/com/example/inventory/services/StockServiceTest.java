@@ -0,0 +1,177 @@
+package com.example.inventory.services;
+
+import com.example.inventory.exception.InsufficientStockException;
+import com.example.inventory.exception.ProductNotFoundException;
+import com.example.inventory.models.Product;
+import com.example.inventory.models.StockLevel;
+import com.example.inventory.repositories.ProductRepository;
+import com.example.inventory.repositories.StockLevelRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class StockServiceTest {
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLevelRepository stockLevelRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(Product.builder()
+                .name("Macbook Pro")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(1099.00))
+                .quantity(0).build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        stockLevelRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void adjustStockKeepsProductTotal() {
+        stockService.adjustStock(product.getId(), "berlin", 10);
+        stockService.adjustStock(product.getId(), "hamburg", 5);
+        stockService.adjustStock(product.getId(), "berlin", -4);
+
+        assertThat(stockService.getStockLevels(product.getId()))
+                .extracting(StockLevel::getLocation, StockLevel::getQuantity)
+                .containsExactly(
+                        tuple("berlin", 6),
+                        tuple("hamburg", 5));
+        assertThat(productService.getProductById(product.getId()))
+                .get()
+                .extracting(Product::getQuantity)
+                .isEqualTo(11);
+    }
+
+    @Test
+    void adjustStockRejectsOverdraw() {
+        stockService.adjustStock(product.getId(), "berlin", 3);
+
+        assertThatThrownBy(() -> stockService.adjustStock(product.getId(), "berlin", -4))
+                .isInstanceOf(InsufficientStockException.class);
+        assertThatThrownBy(() -> stockService.adjustStock(product.getId(), "hamburg", -1))
+                .isInstanceOf(InsufficientStockException.class);
+
+        assertThat(stockLevelRepository.findByProductIdOrderByLocation(product.getId()))
+                .extracting(StockLevel::getQuantity)
+                .containsExactly(3);
+        assertThat(productRepository.findById(product.getId()))
+                .get()
+                .extracting(Product::getQuantity)
+                .isEqualTo(3);
+    }
+
+    @Test
+    void adjustStockUnknownProduct() {
+        assertThatThrownBy(() -> stockService.adjustStock(product.getId() + 1000, "berlin", 1))
+                .isInstanceOf(ProductNotFoundException.class);
+    }
+
+    @Test
+    void getLocationStockPagesByProductId() {
+        Product other = productRepository.save(Product.builder()
+                .name("Airpods 2")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(960.00))
+                .quantity(0).build());
+        stockService.adjustStock(product.getId(), "berlin", 1);
+        stockService.adjustStock(other.getId(), "berlin", 2);
+        stockService.adjustStock(other.getId(), "hamburg", 3);
+
+        assertThat(stockService.getLocationStock("berlin", null, 1))
+                .extracting(StockLevel::getProductId)
+                .containsExactly(product.getId());
+        assertThat(stockService.getLocationStock("berlin", product.getId(), 10))
+                .extracting(StockLevel::getProductId)
+                .containsExactly(other.getId());
+    }
+
+    @Test
+    void productLevelWritesGoThroughDefaultLocation() {
+        stockService.adjustStock(product.getId(), "berlin", 4);
+        Product saved = productService.saveProduct(Product.builder()
+                .name("Airpods 2")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(960.00))
+                .quantity(7).build());
+        productService.adjustStock(saved.getId(), -2);
+        productService.adjustStock(product.getId(), 3);
+        productService.saveProduct(productRepository.findById(product.getId()).orElseThrow().toBuilder().quantity(10).build());
+
+        assertThat(stockService.getStockLevels(saved.getId()))
+                .extracting(StockLevel::getLocation, StockLevel::getQuantity)
+                .containsExactly(tuple("default", 5));
+        assertThat(stockService.getStockLevels(product.getId()))
+                .extracting(StockLevel::getLocation, StockLevel::getQuantity)
+                .containsExactly(
+                        tuple("berlin", 4),
+                        tuple("default", 6));
+        assertThat(stockLevelRepository.findUnbalancedProductIds()).isEmpty();
+    }
+
+    @Test
+    void productLevelWritesCantTakeStockFromOtherLocations() {
+        stockService.adjustStock(product.getId(), "berlin", 4);
+        Product current = productRepository.findById(product.getId()).orElseThrow();
+
+        assertThatThrownBy(() -> productService.adjustStock(product.getId(), -1))
+                .isInstanceOf(InsufficientStockException.class);
+        assertThatThrownBy(() -> productService.saveProduct(current.toBuilder().quantity(3).build()))
+                .isInstanceOf(InsufficientStockException.class);
+
+        assertThat(productRepository.findById(product.getId()))
+                .get()
+                .extracting(Product::getQuantity)
+                .isEqualTo(4);
+        assertThat(stockLevelRepository.findUnbalancedProductIds()).isEmpty();
+    }
+
+    @Test
+    void initDefaultLocationsBackfillsProductsWithoutLocations() {
+        Product legacy = productRepository.save(Product.builder()
+                .name("Airpods 2")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(960.00))
+                .quantity(9).build());
+
+        stockService.initDefaultLocations();
+
+        assertThat(stockService.getStockLevels(legacy.getId()))
+                .extracting(StockLevel::getLocation, StockLevel::getQuantity)
+                .containsExactly(tuple("default", 9));
+        assertThat(stockLevelRepository.findUnbalancedProductIds()).isEmpty();
+    }
+
+    @Test
+    void deleteProductRemovesStockLevels() {
+        stockService.adjustStock(product.getId(), "berlin", 1);
+
+        productService.deleteProduct(product.getId());
+
+        assertThat(stockLevelRepository.findByProductIdOrderByLocation(product.getId())).isEmpty();
+    }
+}
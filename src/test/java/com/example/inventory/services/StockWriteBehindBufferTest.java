@@ -0,0 +1,179 @@
+package com.example.inventory.services;
+
+import com.example.inventory.dto.StockAdjustment;
+import com.example.inventory.dto.StockSubmission;
+import com.example.inventory.models.Product;
+import com.example.inventory.models.WriteBehindCheckpoint;
+import com.example.inventory.repositories.ProductRepository;
+import com.example.inventory.repositories.StockLevelRepository;
+import com.example.inventory.repositories.WriteBehindCheckpointRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The flush interval is long enough that only the explicit flush() calls write to the database.
+@SpringBootTest(properties = {
+        "inventory.stock.write-behind.enabled=true",
+        "inventory.stock.write-behind.durability=LOG",
+        "inventory.stock.write-behind.flush-interval=1h"
+})
+class StockWriteBehindBufferTest {
+
+    private static final long UNKNOWN_PRODUCT_ID = 999_999L;
+
+    @TempDir
+    static Path logDirectory;
+
+    @Autowired
+    private StockWriteBehindBuffer stockWriteBehindBuffer;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLevelRepository stockLevelRepository;
+
+    @Autowired
+    private WriteBehindCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void logDirectory(DynamicPropertyRegistry registry) {
+        registry.add("inventory.stock.write-behind.log-directory", logDirectory::toString);
+    }
+
+    // a segment left behind by a crashed instance, replayed when the context starts
+    @BeforeAll
+    static void writeUnappliedSegment() throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(Long.BYTES + Integer.BYTES).putLong(UNKNOWN_PRODUCT_ID).putInt(5);
+        Files.write(StockWriteBehindBuffer.segmentFile(logDirectory, 1), record.array());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        stockLevelRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void unappliedSegmentsAreReplayedOnStartup() throws IOException {
+        String nodeId = Files.readString(logDirectory.resolve("node-id"));
+
+        assertThat(checkpointRepository.findById(nodeId))
+                .get()
+                .extracting(WriteBehindCheckpoint::getLastSegment)
+                .isEqualTo(1L);
+        assertThat(StockWriteBehindBuffer.segmentFile(logDirectory, 1)).doesNotExist();
+    }
+
+    @Test
+    void flushCoalescesDeltasPerProduct() {
+        Product product = saveProduct(10);
+        double rows = meterRegistry.counter("inventory.stock.writebehind.rows").count();
+
+        StockSubmission submission = submit(product, 5, -3);
+        submit(product, 1);
+        assertThat(productRepository.findById(product.getId())).get().extracting(Product::getQuantity).isEqualTo(10);
+        assertThat(submission.status()).isEqualTo(StockSubmission.Status.PENDING);
+
+        stockWriteBehindBuffer.flush();
+
+        assertThat(productRepository.findById(product.getId())).get().extracting(Product::getQuantity).isEqualTo(13);
+        assertThat(meterRegistry.counter("inventory.stock.writebehind.rows").count()).isEqualTo(rows + 1);
+        assertThat(meterRegistry.get("inventory.stock.writebehind.pending").gauge().value()).isZero();
+        assertThat(stockWriteBehindBuffer.getSubmission(submission.id()))
+                .get()
+                .extracting(StockSubmission::status)
+                .isEqualTo(StockSubmission.Status.APPLIED);
+    }
+
+    @Test
+    void flushDropsDeltasThatWouldOversell() {
+        Product product = saveProduct(2);
+        double rejected = meterRegistry.counter("inventory.stock.writebehind.rejected").count();
+
+        StockSubmission submission = submit(product, -5);
+        stockWriteBehindBuffer.flush();
+
+        assertThat(productRepository.findById(product.getId())).get().extracting(Product::getQuantity).isEqualTo(2);
+        assertThat(meterRegistry.counter("inventory.stock.writebehind.rejected").count()).isEqualTo(rejected + 1);
+        assertThat(stockWriteBehindBuffer.getSubmission(submission.id()))
+                .get()
+                .isEqualTo(new StockSubmission(submission.id(), StockSubmission.Status.REJECTED, List.of(product.getId())));
+    }
+
+    @Test
+    void flushDropsOnlyTheReservationsTheStockCantCover() {
+        Product product = saveProduct(2);
+
+        StockSubmission first = submit(product, -5);
+        StockSubmission restock = submit(product, 4);
+        StockSubmission last = submit(product, -3);
+        stockWriteBehindBuffer.flush();
+
+        // 2 + 4 - 5 leaves 1, which can't cover the last reservation
+        assertThat(productRepository.findById(product.getId())).get().extracting(Product::getQuantity).isEqualTo(1);
+        assertThat(stockWriteBehindBuffer.getSubmission(first.id())).get()
+                .extracting(StockSubmission::status).isEqualTo(StockSubmission.Status.APPLIED);
+        assertThat(stockWriteBehindBuffer.getSubmission(restock.id())).get()
+                .extracting(StockSubmission::status).isEqualTo(StockSubmission.Status.APPLIED);
+        assertThat(stockWriteBehindBuffer.getSubmission(last.id())).get()
+                .extracting(StockSubmission::rejectedProductIds).isEqualTo(List.of(product.getId()));
+    }
+
+    @Test
+    void flushDropsOverflowingDeltasWithoutFailingOtherProducts() {
+        Product full = saveProduct(10);
+        Product other = saveProduct(10);
+
+        StockSubmission overflow = submit(full, Integer.MAX_VALUE);
+        StockSubmission reservation = submit(full, -4);
+        submit(other, 7);
+        stockWriteBehindBuffer.flush();
+
+        assertThat(productRepository.findById(full.getId())).get().extracting(Product::getQuantity).isEqualTo(6);
+        assertThat(productRepository.findById(other.getId())).get().extracting(Product::getQuantity).isEqualTo(17);
+        assertThat(stockWriteBehindBuffer.getSubmission(overflow.id())).get()
+                .extracting(StockSubmission::status).isEqualTo(StockSubmission.Status.REJECTED);
+        assertThat(stockWriteBehindBuffer.getSubmission(reservation.id())).get()
+                .extracting(StockSubmission::status).isEqualTo(StockSubmission.Status.APPLIED);
+        assertThat(meterRegistry.get("inventory.stock.writebehind.pending").gauge().value()).isZero();
+    }
+
+    private StockSubmission submit(Product product, int... deltas) {
+        List<StockAdjustment> adjustments = Arrays.stream(deltas)
+                .mapToObj(delta -> new StockAdjustment(product.getId(), delta))
+                .toList();
+        return stockWriteBehindBuffer.submit(adjustments);
+    }
+
+    // through the service, so the default location holds the stock
+    private Product saveProduct(int quantity) {
+        return productService.saveProduct(Product.builder()
+                .name("Airpods 2")
+                .brand("Apple")
+                .price(BigDecimal.valueOf(960.00))
+                .quantity(quantity).build());
+    }
+}
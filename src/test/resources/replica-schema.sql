@@ -0,0 +1,15 @@
+CREATE SEQUENCE IF NOT EXISTS product_id_seq START WITH 1 INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS products (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255),
+    brand VARCHAR(255),
+    price NUMERIC(38, 2),
+    quantity INTEGER,
+    version BIGINT DEFAULT 0 NOT NULL
+);
+CREATE TABLE IF NOT EXISTS stock_levels (
+    product_id BIGINT NOT NULL,
+    location VARCHAR(64) NOT NULL,
+    quantity INTEGER NOT NULL,
+    PRIMARY KEY (product_id, location)
+);